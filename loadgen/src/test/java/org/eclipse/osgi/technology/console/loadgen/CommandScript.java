@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.loadgen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recorded command script: one command per line, lines starting with
+ * {@code #} and blank lines are ignored.
+ */
+record CommandScript(String name, List<String> lines) {
+
+    /**
+     * Loads a script from the class path of this bundle.
+     *
+     * @param resource the resource path, e.g. {@code scripts/health.gosh}
+     * @return the parsed script
+     * @throws IOException if the resource is missing or cannot be read
+     */
+    static CommandScript load(String resource) throws IOException {
+        var stream = CommandScript.class.getClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IOException("Script not found: " + resource);
+        }
+        var lines = new ArrayList<String>();
+        try (var reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                var trimmed = line.strip();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    lines.add(trimmed);
+                }
+            }
+        }
+        return new CommandScript(resource, List.copyOf(lines));
+    }
+}
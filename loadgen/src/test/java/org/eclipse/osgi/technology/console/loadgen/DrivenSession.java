@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.loadgen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.apache.felix.service.command.CommandProcessor;
+import org.apache.felix.service.command.CommandSession;
+
+/**
+ * One Gogo session running {@code gosh login}, fed through a pipe and observed
+ * through a {@link PromptDetector}.
+ */
+final class DrivenSession implements AutoCloseable {
+
+    static final String PROMPT = "\u0001loadgen> ";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Method ALLOCATED_BYTES = allocatedBytesMethod();
+
+    private final PipedOutputStream keyboard = new PipedOutputStream();
+    private final PromptDetector console = new PromptDetector(PROMPT);
+    private final Duration timeout;
+    private final CommandSession session;
+    private final Thread shellThread;
+
+    private volatile Throwable failure;
+
+    DrivenSession(CommandProcessor processor, String name, Duration timeout) throws IOException {
+        this.timeout = timeout;
+        var input = new PipedInputStream(keyboard, 64 * 1024);
+        this.session = processor.createSession(input, console, OutputStream.nullOutputStream());
+        session.put("prompt", PROMPT);
+        this.shellThread = new Thread(this::runShell, name);
+        shellThread.setDaemon(true);
+    }
+
+    /**
+     * Starts {@code gosh} and waits for its first prompt.
+     */
+    void start() throws IOException, InterruptedException {
+        shellThread.start();
+        awaitPrompt();
+    }
+
+    /**
+     * Sends one command line and waits until the console prompts again.
+     */
+    void execute(String line) throws IOException, InterruptedException {
+        keyboard.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        keyboard.flush();
+        awaitPrompt();
+    }
+
+    /**
+     * Returns the bytes allocated so far by the shell thread, or {@code -1} if
+     * the JVM does not support per-thread allocation accounting.
+     */
+    long allocatedBytes() {
+        if (ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (long) ALLOCATED_BYTES.invoke(THREADS, shellThread.getId());
+        } catch (ReflectiveOperationException e) {
+            return -1;
+        }
+    }
+
+    long outputBytes() {
+        return console.bytes();
+    }
+
+    private void awaitPrompt() throws IOException, InterruptedException {
+        if (!console.awaitPrompt(timeout)) {
+            if (failure != null) {
+                throw new IOException("Shell " + shellThread.getName() + " failed", failure);
+            }
+            throw new IOException("Shell " + shellThread.getName() + " did not prompt within " + timeout);
+        }
+    }
+
+    private void runShell() {
+        try {
+            session.execute("gosh login");
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Ends the input, gives the shell up to the timeout to exit and closes the
+     * session. An interrupt while waiting is kept on the calling thread.
+     */
+    @Override
+    public void close() {
+        try {
+            keyboard.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        try {
+            shellThread.join(timeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Looks up {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}
+     * reflectively, so the test bundle does not import {@code com.sun.management}.
+     */
+    private static Method allocatedBytesMethod() {
+        try {
+            var type = Class.forName("com.sun.management.ThreadMXBean");
+            if (!type.isInstance(THREADS)) {
+                return null;
+            }
+            type.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(THREADS, true);
+            return type.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.loadgen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.felix.service.command.CommandProcessor;
+
+/**
+ * Drives N concurrent Gogo sessions through {@code gosh}/{@code Console} and
+ * replays a {@link CommandScript} in each of them.
+ */
+final class LoadGenerator {
+
+    private final CommandProcessor processor;
+    private final int sessions;
+    private final int iterations;
+    private final Duration timeout;
+
+    LoadGenerator(CommandProcessor processor, int sessions, int iterations, Duration timeout) {
+        this.processor = processor;
+        this.sessions = sessions;
+        this.iterations = iterations;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Replays {@code script} {@code iterations} times in every session, all
+     * sessions starting at the same time.
+     *
+     * @return the aggregated measurements
+     * @throws Exception if a session fails or stops responding
+     */
+    LoadReport run(CommandScript script) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(sessions, r -> {
+            var thread = new Thread(r, "loadgen-driver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            var ready = new CountDownLatch(sessions);
+            var go = new CountDownLatch(1);
+            var results = new ArrayList<Future<SessionResult>>(sessions);
+            for (int i = 0; i < sessions; i++) {
+                results.add(executor.submit(driver(script, "loadgen-shell-" + i, ready, go)));
+            }
+
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+
+            var latencies = new long[sessions * iterations * script.lines().size()];
+            long allocated = 0;
+            int offset = 0;
+            for (Future<SessionResult> future : results) {
+                var result = future.get();
+                System.arraycopy(result.latencies(), 0, latencies, offset, result.latencies().length);
+                offset += result.latencies().length;
+                allocated = allocated < 0 || result.allocated() < 0 ? -1 : allocated + result.allocated();
+            }
+            return LoadReport.of(sessions, System.nanoTime() - start, latencies, allocated);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<SessionResult> driver(CommandScript script, String name, CountDownLatch ready,
+            CountDownLatch go) {
+        return () -> {
+            try (var session = new DrivenSession(processor, name, timeout)) {
+                try {
+                    session.start();
+                } finally {
+                    ready.countDown();
+                }
+                go.await();
+
+                var latencies = new long[iterations * script.lines().size()];
+                long allocated = 0;
+                int n = 0;
+                for (int i = 0; i < iterations; i++) {
+                    for (String line : script.lines()) {
+                        long before = session.allocatedBytes();
+                        long start = System.nanoTime();
+                        session.execute(line);
+                        latencies[n++] = System.nanoTime() - start;
+                        long after = session.allocatedBytes();
+                        allocated = before < 0 || after < 0 || allocated < 0 ? -1 : allocated + after - before;
+                    }
+                }
+                return new SessionResult(latencies, allocated);
+            }
+        };
+    }
+
+    private record SessionResult(long[] latencies, long allocated) {
+    }
+}
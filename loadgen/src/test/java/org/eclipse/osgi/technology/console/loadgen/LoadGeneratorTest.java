@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.loadgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.apache.felix.service.command.CommandProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.osgi.framework.BundleContext;
+import org.osgi.test.common.annotation.InjectBundleContext;
+import org.osgi.test.common.annotation.InjectService;
+import org.osgi.test.junit5.context.BundleContextExtension;
+import org.osgi.test.junit5.service.ServiceExtension;
+
+/**
+ * Replays the configured script in concurrent sessions and prints the report.
+ * Sizing is taken from the {@code loadgen.*} properties of {@code test.bndrun}.
+ */
+@ExtendWith(BundleContextExtension.class)
+@ExtendWith(ServiceExtension.class)
+public class LoadGeneratorTest {
+
+    @InjectBundleContext
+    BundleContext context;
+
+    @Test
+    void replayScript(@InjectService(timeout = 10_000) CommandProcessor processor) throws Exception {
+        int sessions = intProperty("loadgen.sessions", 4);
+        int iterations = intProperty("loadgen.iterations", 25);
+        var script = CommandScript.load(property("loadgen.script", "scripts/health.gosh"));
+
+        var report = new LoadGenerator(processor, sessions, iterations, Duration.ofSeconds(30)).run(script);
+        System.out.println("[loadgen] " + script.name() + ": " + report);
+
+        assertEquals(sessions * iterations * script.lines().size(), report.commands());
+    }
+
+    @Test
+    void replayInteractiveSession(@InjectService(timeout = 10_000) CommandProcessor processor) throws Exception {
+        var script = CommandScript.load("scripts/session.gosh");
+
+        var report = new LoadGenerator(processor, 2, 5, Duration.ofSeconds(30)).run(script);
+        System.out.println("[loadgen] " + script.name() + ": " + report);
+
+        assertEquals(2 * 5 * script.lines().size(), report.commands());
+    }
+
+    private String property(String key, String defaultValue) {
+        var value = context.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private int intProperty(String key, int defaultValue) {
+        return Integer.parseInt(property(key, Integer.toString(defaultValue)));
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.loadgen;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated result of a load run.
+ *
+ * @param sessions           number of concurrent sessions
+ * @param commands           number of commands executed over all sessions
+ * @param elapsedNanos       wall clock time of the run
+ * @param p50Nanos           median command latency
+ * @param p99Nanos           99th percentile command latency
+ * @param maxNanos           slowest command
+ * @param allocatedPerCommand average bytes allocated by the shell thread per
+ *                           command, {@code -1} if unknown
+ */
+record LoadReport(int sessions, int commands, long elapsedNanos, long p50Nanos, long p99Nanos, long maxNanos,
+        long allocatedPerCommand) {
+
+    /**
+     * Builds a report from the raw latencies of all sessions.
+     *
+     * @param latencies  per-command latencies in nanoseconds, will be sorted
+     * @param allocated  total bytes allocated, negative if unknown
+     */
+    static LoadReport of(int sessions, long elapsedNanos, long[] latencies, long allocated) {
+        Arrays.sort(latencies);
+        int n = latencies.length;
+        return new LoadReport(sessions, n, elapsedNanos, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                n == 0 ? 0 : latencies[n - 1], allocated < 0 || n == 0 ? -1 : allocated / n);
+    }
+
+    /**
+     * Returns the commands per second over all sessions.
+     */
+    double throughput() {
+        return elapsedNanos == 0 ? 0 : commands * 1_000_000_000d / elapsedNanos;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sessions=%d commands=%d throughput=%.1f cmd/s p50=%.3f ms p99=%.3f ms max=%.3f ms"
+                + " alloc/cmd=%s", sessions, commands, throughput(), p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6,
+                allocatedPerCommand < 0 ? "n/a" : allocatedPerCommand + " B");
+    }
+}
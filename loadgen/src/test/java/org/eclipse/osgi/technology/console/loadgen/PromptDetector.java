@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.loadgen;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Console sink that discards output but counts every occurrence of the prompt,
+ * which marks the completion of the previous command.
+ */
+final class PromptDetector extends OutputStream {
+
+    private final byte[] prompt;
+    private final Semaphore prompts = new Semaphore(0);
+    private int matched;
+    private volatile long bytes;
+
+    PromptDetector(String prompt) {
+        this.prompt = prompt.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        bytes++;
+        if ((byte) b == prompt[matched]) {
+            if (++matched == prompt.length) {
+                matched = 0;
+                prompts.release();
+            }
+        } else {
+            matched = (byte) b == prompt[0] ? 1 : 0;
+        }
+    }
+
+    /**
+     * Waits until the next prompt has been written.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    boolean awaitPrompt(Duration timeout) throws InterruptedException {
+        return prompts.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    long bytes() {
+        return bytes;
+    }
+}
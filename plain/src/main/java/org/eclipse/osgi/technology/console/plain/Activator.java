@@ -15,6 +15,7 @@ package org.eclipse.osgi.technology.console.plain;
 
 import org.apache.felix.service.command.CommandProcessor;
 import org.apache.felix.service.command.CommandSession;
+import org.eclipse.osgi.technology.console.plain.mirror.ConsoleMirror;
 import org.osgi.annotation.bundle.Header;
 import org.osgi.framework.*;
 import org.osgi.util.tracker.ServiceTracker;
@@ -40,6 +41,7 @@ public final class Activator implements BundleActivator {
 
     private ExecutorService executor;
     private StartShellJob shellJob;
+    private Shell shell;
 
     @Override
     public void start(BundleContext context) {
@@ -93,7 +95,7 @@ public final class Activator implements BundleActivator {
         dict.put(CommandProcessor.COMMAND_SCOPE, "gogo");
         dict.put(CommandProcessor.COMMAND_FUNCTION, Shell.functions);
 
-        var shell = new Shell(context, processor);
+        shell = new Shell(context, processor);
         var reg = context.registerService(Shell.class.getName(), shell, dict);
 
         synchronized (regs) {
@@ -110,6 +112,10 @@ public final class Activator implements BundleActivator {
      * Shuts down the background shell thread if running.
      */
     private void stopShell() {
+        if (shell != null) {
+            shell.close();
+            shell = null;
+        }
         if (executor != null && !executor.isShutdown()) {
             if (shellJob != null) {
                 shellJob.terminate();
@@ -139,6 +145,8 @@ public final class Activator implements BundleActivator {
         private final CommandProcessor processor;
         private volatile CommandSession session;
         private volatile Thread shellThread;
+        private volatile ConsoleMirror mirror;
+        private volatile ServiceRegistration<ConsoleMirror> mirrorRegistration;
 
         StartShellJob(BundleContext context, CommandProcessor processor) {
             this.context = context;
@@ -148,8 +156,17 @@ public final class Activator implements BundleActivator {
         @Override
         public void run() {
             shellThread = Thread.currentThread();
-            session = processor.createSession(new FileInputStream(FileDescriptor.in),
-                    new FileOutputStream(FileDescriptor.out), new FileOutputStream(FileDescriptor.err));
+            var keyboard = new FileInputStream(FileDescriptor.in);
+            // observers see what reaches the console, after the governor
+            mirror = new ConsoleMirror(new FileOutputStream(FileDescriptor.out));
+            mirrorRegistration = context.registerService(ConsoleMirror.class, mirror, null);
+            var console = OutputGovernor.govern(mirror, keyboard, context::getProperty);
+            var capture = new JsonLinesCapture(console);
+            session = processor.createSession(keyboard, capture, new FileOutputStream(FileDescriptor.err));
+            if (console instanceof OutputGovernor governor) {
+                session.put(OutputGovernor.SESSION_VARIABLE, governor);
+            }
+            session.put(JsonLinesCapture.SESSION_VARIABLE, capture);
 
             try {
                 var args = context.getProperty("gosh.args");
@@ -169,6 +186,18 @@ public final class Activator implements BundleActivator {
         }
 
         void terminate() {
+            var registration = mirrorRegistration;
+            if (registration != null) {
+                mirrorRegistration = null;
+                try {
+                    registration.unregister();
+                } catch (IllegalStateException e) {
+                    // already unregistered with the bundle
+                }
+            }
+            if (mirror != null) {
+                mirror.unsubscribeAll();
+            }
             if (session != null) {
                 session.close();
                 session = null;
@@ -36,6 +36,9 @@ public final class Console implements Runnable {
     private final InputStream in;
     private final PrintStream out;
     private final HistoryService historyService;
+    private final ResultRetention retention;
+    private final ParsedCommandCache commandCache;
+    private final JsonLinesWriter json;
 
     private volatile boolean quit;
 
@@ -43,10 +46,24 @@ public final class Console implements Runnable {
      * Creates a new interactive console bound to the given session and history.
      */
     public Console(CommandSession session, HistoryService historyService) {
+        this(session, historyService, new ResultRetention(), new ParsedCommandCache(0));
+    }
+
+    /**
+     * Creates a new interactive console that keeps {@code _} and
+     * {@code exception} according to the given retention policy and executes
+     * lines through the given (possibly shared) parsed-command cache.
+     */
+    Console(CommandSession session, HistoryService historyService, ResultRetention retention,
+            ParsedCommandCache commandCache) {
         this.session = session;
         this.in = session.getKeyboard();
         this.out = session.getConsole();
         this.historyService = historyService;
+        this.retention = retention;
+        this.commandCache = commandCache;
+        this.json = new JsonLinesWriter(out);
+        retention.attach(session);
     }
 
     @Override
@@ -60,22 +77,53 @@ public final class Console implements Runnable {
                 }
 
                 var lineToExecute = line;
+                var jsonLines = isJsonLines();
+                var started = System.nanoTime();
+                var failed = false;
+                // Printing the result is part of the command's output budget
+                var governor = jsonLines ? null : governor();
                 try {
                     // Check for history
                     if (!line.isEmpty() && (line.charAt(0) == '!' || line.charAt(0) == '^')) {
                         lineToExecute = historyService.evaluate(line);
-                        System.out.println(lineToExecute);
+                        if (!jsonLines) {
+                            System.out.println(lineToExecute);
+                        }
                     }
 
-                    var result = session.execute(lineToExecute);
-                    session.put("_", result);
+                    if (governor != null) {
+                        governor.commandStarted();
+                    }
+                    var capture = jsonLines ? capture() : null;
+                    if (capture != null) {
+                        capture.begin();
+                    }
+                    Object result;
+                    try {
+                        result = commandCache.execute(session, lineToExecute);
+                    } finally {
+                        if (capture != null) {
+                            out.flush();
+                            capture.end();
+                        }
+                    }
+                    retention.retain(session, "_", result);
 
-                    if (result != null && !Boolean.FALSE.equals(session.get(".Gogo.format"))) {
+                    if (jsonLines) {
+                        json.result(result);
+                    } else if (result != null && !Boolean.FALSE.equals(session.get(".Gogo.format"))) {
                         out.println(session.format(result, Converter.INSPECT));
                     }
                 } catch (Throwable e) {
+                    failed = true;
                     handleError(e);
                 } finally {
+                    if (governor != null) {
+                        governor.commandFinished();
+                    }
+                    if (jsonLines && !quit) {
+                        json.end(lineToExecute, !failed, System.nanoTime() - started);
+                    }
                     // Always append final line to history
                     historyService.append(lineToExecute);
                 }
@@ -87,11 +135,37 @@ public final class Console implements Runnable {
         }
     }
 
+    /**
+     * Returns the output governor registered for the session, if any.
+     */
+    private OutputGovernor governor() {
+        return session.get(OutputGovernor.SESSION_VARIABLE) instanceof OutputGovernor governor ? governor : null;
+    }
+
+    /**
+     * Returns the JSON Lines capture registered for the session, if any.
+     */
+    private JsonLinesCapture capture() {
+        return session.get(JsonLinesCapture.SESSION_VARIABLE) instanceof JsonLinesCapture capture ? capture : null;
+    }
+
+    /**
+     * Returns whether results are streamed as JSON Lines instead of formatted
+     * text.
+     */
+    private boolean isJsonLines() {
+        return JsonLinesWriter.JSON_LINES.equals(session.get(JsonLinesWriter.OUTPUT_MODE));
+    }
+
     /**
      * Determines the prompt text. If the session stores a 'prompt' as a Function,
-     * call it to retrieve the prompt; otherwise uses "g! ".
+     * call it to retrieve the prompt; otherwise uses "g! ". In JSON Lines mode
+     * no prompt is shown, so every output line is a record.
      */
     private String getPrompt() {
+        if (isJsonLines()) {
+            return "";
+        }
         var promptObj = session.get("prompt");
         if (promptObj instanceof Function func) {
             try {
@@ -175,11 +249,15 @@ public final class Console implements Runnable {
         }
 
         if (!quit) {
-            session.put("exception", e);
+            retention.retain(session, "exception", e);
             var loc = session.get(".location");
             if (loc == null || !loc.toString().contains(":")) {
                 loc = "gogo";
             }
+            if (isJsonLines()) {
+                json.error(loc, e);
+                return;
+            }
             out.println(loc + ": " + e.getClass().getSimpleName() + ": " + e.getMessage());
         }
     }
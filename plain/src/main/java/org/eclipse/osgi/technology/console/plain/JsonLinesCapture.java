@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Turns what a command prints while it runs into {@code output} records, so
+ * the console stays one JSON record per line in JSON Lines mode.
+ *
+ * <p>
+ * Outside of {@link #begin()} and {@link #end()} all bytes are written through
+ * unchanged. Output from threads that keep printing after the command
+ * returned is therefore not wrapped. The lock of the capture only guards the
+ * pending line; the stream below is always written without holding it, so
+ * writers that lock a {@code PrintStream} over this capture cannot deadlock.
+ * </p>
+ */
+final class JsonLinesCapture extends FilterOutputStream {
+
+    /**
+     * Session variable under which the capture of a session is registered.
+     */
+    static final String SESSION_VARIABLE = ".console.capture";
+
+    private final Charset charset;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(256);
+
+    private boolean capturing;
+
+    JsonLinesCapture(OutputStream out) {
+        this(out, Charset.defaultCharset());
+    }
+
+    /**
+     * @param charset the charset the session console encodes text with
+     */
+    JsonLinesCapture(OutputStream out, Charset charset) {
+        super(out);
+        this.charset = charset;
+    }
+
+    /**
+     * Starts wrapping every printed line in an {@code output} record.
+     */
+    synchronized void begin() {
+        capturing = true;
+        pending.reset();
+    }
+
+    /**
+     * Writes a pending unterminated line and stops capturing.
+     */
+    void end() throws IOException {
+        String record = null;
+        synchronized (this) {
+            if (capturing && pending.size() > 0) {
+                record = record();
+            }
+            capturing = false;
+        }
+        if (record != null) {
+            out.write(record.getBytes(charset));
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        StringBuilder records;
+        synchronized (this) {
+            records = capturing ? collect(b, off, len) : null;
+        }
+        if (records == null) {
+            out.write(b, off, len);
+        } else if (!records.isEmpty()) {
+            out.write(records.toString().getBytes(charset));
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Adds the bytes to the pending line and returns the records of all lines
+     * they complete.
+     */
+    private StringBuilder collect(byte[] b, int off, int len) {
+        var records = new StringBuilder();
+        int start = off;
+        for (int i = off, end = off + len; i < end; i++) {
+            if (b[i] == '\n') {
+                pending.write(b, start, i - start);
+                records.append(record());
+                start = i + 1;
+            }
+        }
+        pending.write(b, start, off + len - start);
+        return records;
+    }
+
+    private String record() {
+        int length = pending.size();
+        var bytes = pending.toByteArray();
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        pending.reset();
+        return JsonLinesWriter.outputRecord(new String(bytes, 0, length, charset));
+    }
+}
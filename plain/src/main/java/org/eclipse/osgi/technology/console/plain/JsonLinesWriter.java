@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import java.io.PrintStream;
+import java.lang.reflect.Array;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.BaseStream;
+
+/**
+ * Writes command results as JSON Lines, one record per line, for automated
+ * clients.
+ *
+ * <p>
+ * Every command produces one {@code output} record per line it printed while
+ * running (see {@link JsonLinesCapture}), either one {@code result} record or
+ * one {@code item} record per element of an iterable result, optionally an
+ * {@code error} record, and always a closing {@code end} record:
+ * </p>
+ *
+ * <pre>
+ * {"type":"output","text":"Installed 2 bundles"}
+ * {"type":"item","index":0,"value":"a"}
+ * {"type":"item","index":1,"value":"b"}
+ * {"type":"end","command":"...","status":"ok","count":2,"millis":0.412}
+ * </pre>
+ *
+ * <p>
+ * Elements are written as they are iterated, so large results are never
+ * materialized as a whole. Values are converted with {@code toString()}, the
+ * Gogo {@code INSPECT} format is never built.
+ * </p>
+ */
+final class JsonLinesWriter {
+
+    /**
+     * Session variable (and framework property for the default) selecting the
+     * output mode: {@value #TEXT} or {@value #JSON_LINES}.
+     */
+    static final String OUTPUT_MODE = ".console.output";
+
+    static final String TEXT = "text";
+    static final String JSON_LINES = "jsonl";
+
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_NESTED_ELEMENTS = 1_000;
+
+    private final PrintStream out;
+    private final StringBuilder line = new StringBuilder(256);
+    private long count;
+
+    JsonLinesWriter(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes a command result, element by element if it is iterable.
+     */
+    void result(Object result) {
+        count = 0;
+        if (result == null) {
+            return;
+        }
+        var elements = iterator(result);
+        if (elements == null) {
+            line.setLength(0);
+            line.append("{\"type\":\"result\",\"value\":");
+            value(result, 0);
+            line.append('}');
+            emit();
+            count = 1;
+            return;
+        }
+        while (elements.hasNext()) {
+            line.setLength(0);
+            line.append("{\"type\":\"item\",\"index\":").append(count).append(",\"value\":");
+            value(elements.next(), 0);
+            line.append('}');
+            emit();
+            count++;
+        }
+    }
+
+    /**
+     * Returns the record, including its line end, for a line the command
+     * printed while it ran.
+     */
+    static String outputRecord(CharSequence text) {
+        var record = new StringBuilder(text.length() + 28);
+        record.append("{\"type\":\"output\",\"text\":");
+        string(record, text);
+        return record.append("}\n").toString();
+    }
+
+    /**
+     * Writes a failure as a structured record including its cause chain.
+     */
+    void error(Object location, Throwable e) {
+        line.setLength(0);
+        line.append("{\"type\":\"error\",\"location\":");
+        string(String.valueOf(location));
+        line.append(",\"exception\":");
+        string(e.getClass().getName());
+        line.append(",\"message\":");
+        nullableString(e.getMessage());
+        line.append(",\"causes\":[");
+        int depth = 0;
+        for (Throwable cause = e.getCause(); cause != null && cause != e && depth < MAX_DEPTH; cause = cause
+                .getCause(), depth++) {
+            if (depth > 0) {
+                line.append(',');
+            }
+            line.append("{\"exception\":");
+            string(cause.getClass().getName());
+            line.append(",\"message\":");
+            nullableString(cause.getMessage());
+            line.append('}');
+        }
+        line.append("]}");
+        emit();
+    }
+
+    /**
+     * Closes the records of one command.
+     *
+     * @param command     the executed line
+     * @param ok          {@code false} if the command failed
+     * @param elapsedNanos execution time
+     */
+    void end(CharSequence command, boolean ok, long elapsedNanos) {
+        line.setLength(0);
+        line.append("{\"type\":\"end\",\"command\":");
+        string(command);
+        line.append(",\"status\":\"").append(ok ? "ok" : "error").append("\",\"count\":").append(count)
+                .append(",\"millis\":").append(elapsedNanos / 1_000L / 1000d).append('}');
+        emit();
+        out.flush();
+        count = 0;
+    }
+
+    private void emit() {
+        line.append('\n');
+        out.append(line);
+    }
+
+    private void value(Object value, int depth) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof Boolean) {
+            line.append(value);
+        } else if (value instanceof Double d && (d.isNaN() || d.isInfinite())
+                || value instanceof Float f && (f.isNaN() || f.isInfinite())) {
+            string(value.toString());
+        } else if (value instanceof Number) {
+            line.append(value);
+        } else if (value instanceof CharSequence text) {
+            string(text);
+        } else if (depth < MAX_DEPTH && value instanceof Map<?, ?> map) {
+            line.append('{');
+            int n = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (n++ == MAX_NESTED_ELEMENTS) {
+                    break;
+                }
+                if (n > 1) {
+                    line.append(',');
+                }
+                string(String.valueOf(entry.getKey()));
+                line.append(':');
+                value(entry.getValue(), depth + 1);
+            }
+            line.append('}');
+        } else {
+            var elements = depth < MAX_DEPTH ? iterator(value) : null;
+            if (elements == null) {
+                string(value.toString());
+                return;
+            }
+            line.append('[');
+            for (int n = 0; elements.hasNext() && n < MAX_NESTED_ELEMENTS; n++) {
+                if (n > 0) {
+                    line.append(',');
+                }
+                value(elements.next(), depth + 1);
+            }
+            line.append(']');
+        }
+    }
+
+    private void nullableString(CharSequence text) {
+        if (text == null) {
+            line.append("null");
+        } else {
+            string(text);
+        }
+    }
+
+    private void string(CharSequence text) {
+        string(line, text);
+    }
+
+    private static void string(StringBuilder line, CharSequence text) {
+        line.append('"');
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '"' -> line.append("\\\"");
+            case '\\' -> line.append("\\\\");
+            case '\n' -> line.append("\\n");
+            case '\r' -> line.append("\\r");
+            case '\t' -> line.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    line.append(String.format("\\u%04x", (int) c));
+                } else {
+                    line.append(c);
+                }
+            }
+            }
+        }
+        line.append('"');
+    }
+
+    private static Iterator<?> iterator(Object value) {
+        if (value instanceof Iterable<?> iterable) {
+            return iterable.iterator();
+        }
+        if (value instanceof Iterator<?> iterator) {
+            return iterator;
+        }
+        if (value instanceof BaseStream<?, ?> stream) {
+            return stream.iterator();
+        }
+        if (value instanceof Enumeration<?> enumeration) {
+            return enumeration.asIterator();
+        }
+        if (value.getClass().isArray()) {
+            return new Iterator<>() {
+                private final int length = Array.getLength(value);
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < length;
+                }
+
+                @Override
+                public Object next() {
+                    return Array.get(value, index++);
+                }
+            };
+        }
+        return null;
+    }
+}
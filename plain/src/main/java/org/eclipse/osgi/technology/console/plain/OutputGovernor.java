@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the rate at which command output reaches a slow console.
+ *
+ * <p>
+ * While a command runs, output is metered with a token bucket that refills at
+ * the configured rate, or at the measured consumer throughput if that is
+ * lower. Once the bucket is empty at a line boundary the governor either
+ * pauses with a {@code --more--} prompt or drops whole lines and reports
+ * {@code [12,345 lines suppressed]} when output is admitted again or the
+ * command finishes. Output outside of commands (prompt, echo) is never
+ * metered.
+ * </p>
+ */
+final class OutputGovernor extends FilterOutputStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutputGovernor.class);
+
+    /**
+     * How output above the rate is handled.
+     */
+    enum Policy {
+        MORE, SUMMARIZE
+    }
+
+    /**
+     * Framework property with the admitted rate in bytes per second, default
+     * {@code 0} (no governor).
+     */
+    static final String RATE_PROPERTY = "console.output.rate";
+
+    /**
+     * Framework property selecting the {@link Policy}, default
+     * {@code summarize}.
+     */
+    static final String POLICY_PROPERTY = "console.output.policy";
+
+    /**
+     * Session variable under which the governor of a session is registered.
+     */
+    static final String SESSION_VARIABLE = ".console.governor";
+
+    private static final byte[] MORE_PROMPT = "--more--".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERASE_MORE_PROMPT = "\r        \r".getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream keyboard;
+    private final Policy policy;
+    private final long rate;
+    private final long burst;
+    private final byte[] single = new byte[1];
+
+    private double tokens;
+    private long lastRefill;
+    private double consumerRate;
+
+    private boolean active;
+    private boolean suppressing;
+    private boolean skipRest;
+    private boolean atLineStart = true;
+    private boolean lastWasNewline = true;
+    private long suppressedLines;
+
+    OutputGovernor(OutputStream out, InputStream keyboard, Policy policy, long rate) {
+        super(out);
+        this.keyboard = keyboard;
+        this.policy = keyboard == null ? Policy.SUMMARIZE : policy;
+        this.rate = rate;
+        this.burst = rate;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Wraps {@code out} in a governor if a rate is configured. Invalid values
+     * are logged and replaced by their default, so a typo does not keep the
+     * console from starting.
+     *
+     * @param out        the console stream
+     * @param keyboard   the keyboard, used to answer {@code --more--}
+     * @param properties property lookup, returning {@code null} for unset keys
+     * @return the governor, or {@code out} itself if no rate is configured
+     */
+    static OutputStream govern(OutputStream out, InputStream keyboard, UnaryOperator<String> properties) {
+        var rateValue = properties.apply(RATE_PROPERTY);
+        long rate = 0;
+        if (rateValue != null) {
+            try {
+                rate = Long.parseLong(rateValue.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for {}: {}", RATE_PROPERTY, rateValue);
+            }
+        }
+        if (rate <= 0) {
+            return out;
+        }
+        var policyValue = properties.apply(POLICY_PROPERTY);
+        var policy = Policy.SUMMARIZE;
+        if (policyValue != null) {
+            try {
+                policy = Policy.valueOf(policyValue.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid value for {}: {}", POLICY_PROPERTY, policyValue);
+            }
+        }
+        return new OutputGovernor(out, keyboard, policy, rate);
+    }
+
+    /**
+     * Starts metering the output of a command.
+     */
+    synchronized void commandStarted() {
+        active = true;
+        tokens = burst;
+        lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Stops metering and reports any output that was suppressed.
+     */
+    synchronized void commandFinished() throws IOException {
+        if (suppressing) {
+            writeSummary();
+        }
+        active = false;
+        skipRest = false;
+        out.flush();
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (!active) {
+            meteredWrite(b, off, len);
+            return;
+        }
+        int end = off + len;
+        for (int start = off; start < end;) {
+            int lineEnd = start;
+            while (lineEnd < end && b[lineEnd++] != '\n') {
+                // find the end of the line
+            }
+            admit(b, start, lineEnd - start);
+            start = lineEnd;
+        }
+    }
+
+    private void admit(byte[] b, int off, int len) throws IOException {
+        boolean endsLine = b[off + len - 1] == '\n';
+        refill();
+
+        if (suppressing) {
+            if (skipRest || !atLineStart || tokens < burst / 2d) {
+                suppress(endsLine);
+                return;
+            }
+            writeSummary();
+        }
+
+        if (atLineStart && tokens < len) {
+            if (policy == Policy.MORE && more()) {
+                tokens = burst;
+            } else {
+                skipRest = policy == Policy.MORE;
+                suppressing = true;
+                suppress(endsLine);
+                return;
+            }
+        }
+
+        tokens -= len;
+        meteredWrite(b, off, len);
+        atLineStart = endsLine;
+    }
+
+    private void suppress(boolean endsLine) {
+        if (endsLine) {
+            suppressedLines++;
+        }
+        atLineStart = endsLine;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double admitted = consumerRate > 0 ? Math.min(rate, consumerRate) : rate;
+        tokens = Math.min(burst, tokens + (now - lastRefill) * admitted / 1e9);
+        lastRefill = now;
+    }
+
+    /**
+     * Shows {@code --more--} and waits for the user.
+     *
+     * @return {@code false} if the user asked to skip the rest of the output
+     */
+    private boolean more() throws IOException {
+        out.write(MORE_PROMPT);
+        out.flush();
+        int first = -1;
+        for (int c = keyboard.read(); c != -1 && c != '\n'; c = keyboard.read()) {
+            if (first == -1 && c != '\r') {
+                first = c;
+            }
+        }
+        out.write(ERASE_MORE_PROMPT);
+        lastRefill = System.nanoTime();
+        return first != 'q' && first != 'Q';
+    }
+
+    private void writeSummary() throws IOException {
+        long lines = suppressedLines + (atLineStart ? 0 : 1);
+        if (!lastWasNewline) {
+            out.write('\n');
+        }
+        var summary = String.format(Locale.ROOT, "[%,d lines suppressed]%n", lines);
+        out.write(summary.getBytes(StandardCharsets.US_ASCII));
+        lastWasNewline = true;
+        suppressing = false;
+        suppressedLines = 0;
+        atLineStart = true;
+    }
+
+    /**
+     * Writes through and updates the measured consumer throughput from the time
+     * the write blocked.
+     */
+    private void meteredWrite(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        out.write(b, off, len);
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > 0) {
+            double current = len * 1e9 / elapsed;
+            consumerRate = consumerRate == 0 ? current : 0.8 * consumerRate + 0.2 * current;
+        }
+        lastWasNewline = b[off + len - 1] == '\n';
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.felix.gogo.runtime.CommandSessionImpl;
+import org.apache.felix.gogo.runtime.Parser;
+import org.apache.felix.gogo.runtime.Parser.Program;
+import org.apache.felix.gogo.runtime.SyntaxError;
+import org.apache.felix.service.command.CommandSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LRU cache of parsed Gogo programs keyed by the command line text.
+ *
+ * <p>
+ * Parsed programs are immutable token trees and can be shared by all sessions.
+ * A cached {@link Program} is itself a {@link CharSequence} and is passed to
+ * {@link CommandSession#execute(CharSequence)}, which runs it without
+ * tokenizing and parsing the line again. The session therefore still rejects
+ * execution once closed and notifies its {@code CommandSessionListener}s.
+ * Lines that do not parse are not cached and are executed as text, so syntax
+ * errors are reported with their location exactly as without the cache.
+ * </p>
+ */
+final class ParsedCommandCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParsedCommandCache.class);
+
+    /**
+     * Framework property with the number of cached programs, default
+     * {@value #DEFAULT_CAPACITY}; {@code 0} disables the cache.
+     */
+    static final String CAPACITY_PROPERTY = "console.parsecache.size";
+
+    private static final int DEFAULT_CAPACITY = 0;
+
+    private final int capacity;
+    private final Map<String, Program> programs;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    ParsedCommandCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.programs = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Program> eldest) {
+                return size() > ParsedCommandCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Creates a cache sized by the {@link #CAPACITY_PROPERTY} property. An
+     * invalid value is logged and the default is used.
+     *
+     * @param value the property value, may be {@code null}
+     */
+    static ParsedCommandCache fromProperty(String value) {
+        var capacity = DEFAULT_CAPACITY;
+        if (value != null) {
+            try {
+                capacity = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for {}: {}", CAPACITY_PROPERTY, value);
+            }
+        }
+        return new ParsedCommandCache(capacity);
+    }
+
+    /**
+     * Executes the given line, reusing a previously parsed program if possible.
+     *
+     * @param session the session to execute in
+     * @param line    the command line
+     * @return the result of the execution
+     * @throws Exception if parsing or execution fails
+     */
+    Object execute(CommandSession session, CharSequence line) throws Exception {
+        if (capacity == 0 || !(session instanceof CommandSessionImpl)) {
+            return session.execute(line);
+        }
+
+        Program program;
+        try {
+            program = program(line.toString());
+        } catch (SyntaxError e) {
+            return session.execute(line);
+        }
+        return session.execute(program);
+    }
+
+    /**
+     * Returns the parsed program of a line, from the cache if possible.
+     */
+    Program program(String line) {
+        Program program;
+        synchronized (programs) {
+            program = programs.get(line);
+        }
+        if (program != null) {
+            hits.incrementAndGet();
+            return program;
+        }
+        misses.incrementAndGet();
+        program = new Parser(line).program();
+        synchronized (programs) {
+            programs.put(line, program);
+        }
+        return program;
+    }
+
+    /**
+     * Drops all cached programs, e.g. when commands are (re-)registered.
+     */
+    void invalidate() {
+        synchronized (programs) {
+            if (programs.isEmpty()) {
+                return;
+            }
+            programs.clear();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns a one-line summary of the cache statistics.
+     */
+    String statistics() {
+        int size;
+        synchronized (programs) {
+            size = programs.size();
+        }
+        return String.format("size=%d/%d hits=%d misses=%d invalidations=%d", size, capacity, hits.get(),
+                misses.get(), invalidations.get());
+    }
+}
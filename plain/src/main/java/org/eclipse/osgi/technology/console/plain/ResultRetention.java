@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.apache.felix.service.command.CommandSession;
+import org.apache.felix.service.command.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides how strongly the session variables {@code _} and {@code exception}
+ * hold on to the last result and failure.
+ *
+ * <p>
+ * Results whose estimated size stays below the configured maximum are kept as
+ * plain session variables. Larger results, or all results if a soft or weak
+ * strength is configured, are published through Gogo's dynamic
+ * {@code #name} variables, so {@code $_} still resolves while the value is
+ * reachable but the session itself no longer pins it.
+ * </p>
+ *
+ * <p>
+ * Optionally the last N results are kept in a ring, exposed as
+ * {@code $_results} (newest first). Strongly held ring entries share the same
+ * size budget; once it is exhausted the oldest ones are demoted to soft
+ * references.
+ * </p>
+ */
+final class ResultRetention {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultRetention.class);
+
+    /**
+     * How a retained value is referenced.
+     */
+    enum Strength {
+        STRONG, SOFT, WEAK
+    }
+
+    /**
+     * Framework property selecting the {@link Strength}, default
+     * {@code strong}.
+     */
+    static final String STRENGTH_PROPERTY = "console.retention.strength";
+
+    /**
+     * Framework property with the maximum estimated size in bytes that is held
+     * strongly, default 16 MiB. The estimate only walks strings, arrays,
+     * collections and maps (see {@link SizeEstimator}); other objects count as
+     * a fixed shallow size, so a large graph behind a plain object, such as a
+     * bundle, is not detected.
+     */
+    static final String MAX_SIZE_PROPERTY = "console.retention.maxsize";
+
+    /**
+     * Framework property with the number of recent results kept in the ring,
+     * default {@code 0} (disabled).
+     */
+    static final String RING_PROPERTY = "console.retention.ring";
+
+    /**
+     * Session variable exposing the ring of recent results.
+     */
+    static final String RING_VARIABLE = "_results";
+
+    private static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+
+    private final Strength strength;
+    private final long maxRetainedSize;
+    private final int ringSize;
+    private final LinkedList<Entry> ring = new LinkedList<>();
+
+    /**
+     * Creates a retention with the default settings: strong references, 16 MiB
+     * and no ring.
+     */
+    ResultRetention() {
+        this(Strength.STRONG, DEFAULT_MAX_SIZE, 0);
+    }
+
+    ResultRetention(Strength strength, long maxRetainedSize, int ringSize) {
+        this.strength = strength;
+        this.maxRetainedSize = maxRetainedSize;
+        this.ringSize = Math.max(0, ringSize);
+    }
+
+    /**
+     * Reads the settings from framework (or system) properties. Invalid values
+     * are logged and replaced by their default, so a typo does not break the
+     * console.
+     *
+     * @param properties property lookup, returning {@code null} for unset keys
+     * @return the configured retention
+     */
+    static ResultRetention fromProperties(UnaryOperator<String> properties) {
+        var strengthValue = properties.apply(STRENGTH_PROPERTY);
+        var strength = Strength.STRONG;
+        if (strengthValue != null) {
+            try {
+                strength = Strength.valueOf(strengthValue.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid value for {}: {}", STRENGTH_PROPERTY, strengthValue);
+            }
+        }
+        long maxSize = parse(properties, MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE, Long.MAX_VALUE);
+        int ring = (int) parse(properties, RING_PROPERTY, 0, Integer.MAX_VALUE);
+        return new ResultRetention(strength, maxSize, ring);
+    }
+
+    /**
+     * Returns the property as a number in {@code [0, max]}, or the default.
+     */
+    private static long parse(UnaryOperator<String> properties, String key, long defaultValue, long max) {
+        var value = properties.apply(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= 0 && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // logged below
+        }
+        logger.warn("Invalid value for {}: {}", key, value);
+        return defaultValue;
+    }
+
+    /**
+     * Publishes the ring of recent results in the given session.
+     */
+    void attach(CommandSession session) {
+        if (ringSize > 0) {
+            session.put("#" + RING_VARIABLE, (Function) (s, arguments) -> recent());
+        }
+    }
+
+    /**
+     * Stores {@code value} under {@code name} according to the policy.
+     *
+     * @param session the session to update
+     * @param name    the variable name, e.g. {@code _} or {@code exception}
+     * @param value   the value, may be {@code null}
+     */
+    void retain(CommandSession session, String name, Object value) {
+        if (value == null) {
+            session.put("#" + name, null);
+            session.put(name, null);
+            return;
+        }
+
+        long size = SizeEstimator.estimate(value, maxRetainedSize);
+        var effective = strength;
+        if (effective == Strength.STRONG && size > maxRetainedSize) {
+            effective = Strength.SOFT;
+        }
+
+        var holder = reference(value, effective);
+        if (effective == Strength.STRONG) {
+            session.put("#" + name, null);
+            session.put(name, value);
+        } else {
+            session.put(name, null);
+            session.put("#" + name, (Function) (s, arguments) -> holder.get());
+        }
+
+        if (ringSize > 0 && "_".equals(name)) {
+            remember(new Entry(holder, effective == Strength.STRONG ? size : 0));
+        }
+    }
+
+    /**
+     * Returns the ring entries that are still reachable, newest first.
+     */
+    List<Object> recent() {
+        synchronized (ring) {
+            var result = new ArrayList<Object>(ring.size());
+            for (Iterator<Entry> it = ring.descendingIterator(); it.hasNext();) {
+                var value = it.next().holder.get();
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            return result;
+        }
+    }
+
+    private void remember(Entry entry) {
+        synchronized (ring) {
+            ring.add(entry);
+            if (ring.size() > ringSize) {
+                ring.removeFirst();
+            }
+
+            long budget = maxRetainedSize;
+            for (Iterator<Entry> it = ring.descendingIterator(); it.hasNext();) {
+                var current = it.next();
+                if (current.strongSize == 0) {
+                    continue;
+                }
+                if (budget >= current.strongSize) {
+                    budget -= current.strongSize;
+                } else {
+                    current.demote();
+                }
+            }
+        }
+    }
+
+    private static Supplier<Object> reference(Object value, Strength strength) {
+        return switch (strength) {
+        case STRONG -> () -> value;
+        case SOFT -> new SoftReference<>(value)::get;
+        case WEAK -> new WeakReference<>(value)::get;
+        };
+    }
+
+    private static final class Entry {
+        private Supplier<Object> holder;
+        private long strongSize;
+
+        Entry(Supplier<Object> holder, long strongSize) {
+            this.holder = holder;
+            this.strongSize = strongSize;
+        }
+
+        void demote() {
+            var value = holder.get();
+            holder = reference(value, Strength.SOFT);
+            strongSize = 0;
+        }
+    }
+}
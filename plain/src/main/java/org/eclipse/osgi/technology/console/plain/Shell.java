@@ -14,6 +14,7 @@
 package org.eclipse.osgi.technology.console.plain;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Enumeration;
@@ -23,6 +24,10 @@ import java.util.stream.Stream;
 import org.apache.felix.service.command.CommandProcessor;
 import org.apache.felix.service.command.CommandSession;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The {@code Shell} class provides a "gosh" command for Gogo, plus a "history"
@@ -33,10 +38,14 @@ public final class Shell {
     /**
      * The Gogo function names. Used for CommandProcessor.COMMAND_FUNCTION.
      */
-    static final String[] functions = { "gosh" };
+    static final String[] functions = { "gosh", "parsecache" };
+
+    private static final Logger logger = LoggerFactory.getLogger(Shell.class);
 
     private final CommandProcessor processor;
     private final HistoryService historyService;
+    private final ParsedCommandCache commandCache;
+    private final ServiceListener commandListener;
 
     private BundleContext context;
 
@@ -50,9 +59,23 @@ public final class Shell {
         this.context = context;
         this.processor = processor;
         this.historyService = new HistoryService();
+        this.commandCache = ParsedCommandCache.fromProperty(context.getProperty(ParsedCommandCache.CAPACITY_PROPERTY));
+        this.commandListener = event -> commandCache.invalidate();
+        try {
+            context.addServiceListener(commandListener, "(" + CommandProcessor.COMMAND_SCOPE + "=*)");
+        } catch (InvalidSyntaxException e) {
+            logger.error("Cannot track command registrations", e);
+        }
         motd(context);
     }
 
+    /**
+     * Stops tracking command registrations.
+     */
+    void close() {
+        context.removeServiceListener(commandListener);
+    }
+
     private String motd(BundleContext context) {
         try {
         Enumeration<URL> urls = context.getBundle().getResources("motd");
@@ -71,8 +94,28 @@ public final class Shell {
     public Object gosh(final CommandSession session, String[] argv) throws Exception {
         boolean login = Stream.of(argv).anyMatch("login"::equals);
 
-        var newSession = login ? session
-                : processor.createSession(session.getKeyboard(), session.getConsole(), System.err);
+        CommandSession newSession;
+        if (login) {
+            newSession = session;
+        } else {
+            // Share the governor and capture of the outer session, or add them here
+            OutputStream console = session.getConsole();
+            var governor = session.get(OutputGovernor.SESSION_VARIABLE);
+            if (governor == null) {
+                console = OutputGovernor.govern(console, session.getKeyboard(), context::getProperty);
+                governor = console instanceof OutputGovernor ? console : null;
+            }
+            var capture = session.get(JsonLinesCapture.SESSION_VARIABLE);
+            if (capture == null) {
+                console = new JsonLinesCapture(console);
+                capture = console;
+            }
+            newSession = processor.createSession(session.getKeyboard(), console, System.err);
+            if (governor != null) {
+                newSession.put(OutputGovernor.SESSION_VARIABLE, governor);
+            }
+            newSession.put(JsonLinesCapture.SESSION_VARIABLE, capture);
+        }
         newSession.getConsole().print(System.lineSeparator());
 
         String motd = motd(context);
@@ -84,11 +127,23 @@ public final class Shell {
     }
 
     private Object console(CommandSession session) {
-        var console = new Console(session, historyService);
+        var outputMode = context.getProperty(JsonLinesWriter.OUTPUT_MODE);
+        if (outputMode != null && session.get(JsonLinesWriter.OUTPUT_MODE) == null) {
+            session.put(JsonLinesWriter.OUTPUT_MODE, outputMode);
+        }
+        var retention = ResultRetention.fromProperties(context::getProperty);
+        var console = new Console(session, historyService, retention, commandCache);
         console.run();
         return null;
     }
 
+    /**
+     * Returns the statistics of the parsed-command cache.
+     */
+    public String parsecache() {
+        return commandCache.statistics();
+    }
+
     /**
      * Returns formatted history lines with indices.
      */
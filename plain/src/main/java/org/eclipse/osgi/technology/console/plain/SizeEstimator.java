@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cheap, bounded estimate of the heap retained by a command result.
+ *
+ * <p>
+ * The estimate walks strings, arrays, collections and maps only. Any other
+ * object is counted with a fixed shallow size, since reflecting into foreign
+ * objects is neither cheap nor permitted for JDK internals. The walk stops as
+ * soon as the given limit is exceeded or {@link #MAX_NODES} objects have been
+ * visited.
+ * </p>
+ */
+final class SizeEstimator {
+
+    /**
+     * Upper bound of objects visited for a single estimate.
+     */
+    static final int MAX_NODES = 10_000;
+
+    private static final long HEADER = 16;
+    private static final long REFERENCE = 4;
+    private static final long SHALLOW_OBJECT = 64;
+
+    private SizeEstimator() {
+    }
+
+    /**
+     * Estimates the number of bytes reachable from {@code value}.
+     *
+     * @param value the object to measure, may be {@code null}
+     * @param limit the walk stops once the estimate exceeds this value
+     * @return the estimated size in bytes; once the limit is exceeded or the
+     *         node bound is reached, the partial sum collected so far
+     */
+    static long estimate(Object value, long limit) {
+        if (value == null) {
+            return 0;
+        }
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        var pending = new ArrayDeque<Object>();
+        pending.push(value);
+
+        long total = 0;
+        int nodes = 0;
+        while (!pending.isEmpty() && total <= limit && nodes < MAX_NODES) {
+            var current = pending.pop();
+            if (!visited.add(current)) {
+                continue;
+            }
+            nodes++;
+            total += shallow(current);
+
+            if (current instanceof Object[] array) {
+                for (Object element : array) {
+                    if (element != null) {
+                        pending.push(element);
+                    }
+                    if (pending.size() > MAX_NODES) {
+                        break;
+                    }
+                }
+            } else if (current instanceof Collection<?> collection) {
+                total += collection.size() * REFERENCE;
+                for (Object element : collection) {
+                    if (element != null) {
+                        pending.push(element);
+                    }
+                    if (pending.size() > MAX_NODES) {
+                        break;
+                    }
+                }
+            } else if (current instanceof Map<?, ?> map) {
+                total += map.size() * (HEADER + 3 * REFERENCE);
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getKey() != null) {
+                        pending.push(entry.getKey());
+                    }
+                    if (entry.getValue() != null) {
+                        pending.push(entry.getValue());
+                    }
+                    if (pending.size() > MAX_NODES) {
+                        break;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    private static long shallow(Object value) {
+        if (value instanceof CharSequence text) {
+            return HEADER + 24 + text.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return HEADER;
+        }
+        var type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            var component = type.getComponentType();
+            long width;
+            if (!component.isPrimitive()) {
+                width = REFERENCE;
+            } else if (component == long.class || component == double.class) {
+                width = 8;
+            } else if (component == int.class || component == float.class) {
+                width = 4;
+            } else if (component == short.class || component == char.class) {
+                width = 2;
+            } else {
+                width = 1;
+            }
+            return HEADER + length * width;
+        }
+        if (value instanceof Collection<?> || value instanceof Map<?, ?>) {
+            return HEADER + 32;
+        }
+        return SHALLOW_OBJECT;
+    }
+}
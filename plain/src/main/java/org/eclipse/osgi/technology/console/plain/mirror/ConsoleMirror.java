@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain.mirror;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passes console output through and shares it with observers, for example to
+ * mirror a session or to audit it.
+ *
+ * <p>
+ * Output is written through unchanged. While there are subscribers it is also
+ * collected into a chunk, which is published on every {@code flush()} or when
+ * it is full. All subscribers share the chunk, so it is copied once however
+ * many there are; without subscribers nothing is copied. Released chunks are
+ * reused. Each subscriber has a bounded queue, and a full queue drops the
+ * chunk for that subscriber, so a slow observer never holds up the console.
+ * </p>
+ *
+ * <p>
+ * The shell registers the mirror of its console as a service.
+ * </p>
+ */
+public final class ConsoleMirror extends FilterOutputStream {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int POOL_SIZE = 4;
+
+    private final CopyOnWriteArrayList<OutputSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<byte[]> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    private byte[] chunk;
+    private int length;
+    private long sequence;
+
+    public ConsoleMirror(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Subscribes an observer to the output written from now on.
+     *
+     * @param capacity the number of chunks the observer may fall behind before
+     *                 chunks are dropped for it
+     */
+    public OutputSubscription subscribe(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        var subscription = new OutputSubscription(capacity, this);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(OutputSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        out.write(b);
+        if (!subscriptions.isEmpty()) {
+            if (chunk == null) {
+                chunk = chunk();
+            }
+            chunk[length++] = (byte) b;
+            if (length == chunk.length) {
+                publish();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        while (len > 0 && !subscriptions.isEmpty()) {
+            if (chunk == null) {
+                chunk = chunk();
+            }
+            int count = Math.min(len, chunk.length - length);
+            System.arraycopy(b, off, chunk, length, count);
+            length += count;
+            off += count;
+            len -= count;
+            if (length == chunk.length) {
+                publish();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+        publish();
+    }
+
+    /**
+     * Publishes the output since the last flush and closes all subscriptions
+     * before closing the console stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            unsubscribeAll();
+            out.close();
+        }
+    }
+
+    /**
+     * Closes all subscriptions, leaving the console stream open.
+     */
+    public void unsubscribeAll() {
+        for (var subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Offers the collected output to every subscriber. If one accepted it the
+     * chunk now belongs to the frame, otherwise it is reused.
+     */
+    private void publish() {
+        if (length == 0) {
+            return;
+        }
+        // the mirror holds one reference until every subscriber was offered
+        // the frame, so it cannot be recycled in between
+        var frame = new OutputFrame(sequence++, chunk, length, this);
+        var accepted = false;
+        for (var subscription : subscriptions) {
+            frame.retain();
+            if (subscription.offer(frame)) {
+                accepted = true;
+            } else {
+                frame.unretain();
+            }
+        }
+        if (accepted) {
+            chunk = null;
+            frame.release();
+        }
+        length = 0;
+    }
+
+    private byte[] chunk() {
+        var recycled = pool.poll();
+        if (recycled != null) {
+            pooled.decrementAndGet();
+            return recycled;
+        }
+        return new byte[CHUNK_SIZE];
+    }
+
+    void recycle(byte[] array) {
+        if (pooled.incrementAndGet() <= POOL_SIZE) {
+            pool.offer(array);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain.mirror;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A chunk of console output as delivered to an {@link OutputSubscription}.
+ *
+ * <p>
+ * All subscribers see the same array. The frame is reference counted, and
+ * once every subscriber has released it the array is reused for later
+ * output, so {@link #data()} views must not be used after
+ * {@link #release()}. A frame that is never released is left to the garbage
+ * collector.
+ * </p>
+ */
+public final class OutputFrame implements AutoCloseable {
+
+    private final long sequence;
+    private final byte[] array;
+    private final int length;
+    private final ConsoleMirror owner;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    OutputFrame(long sequence, byte[] array, int length, ConsoleMirror owner) {
+        this.sequence = sequence;
+        this.array = array;
+        this.length = length;
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the number of the frame. Frames are numbered consecutively, so a
+     * gap shows that frames were dropped for this subscriber.
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns a new read-only view of the output, with its own position and
+     * limit.
+     */
+    public ByteBuffer data() {
+        return ByteBuffer.wrap(array, 0, length).asReadOnlyBuffer();
+    }
+
+    void retain() {
+        references.incrementAndGet();
+    }
+
+    /**
+     * Drops a reference that is known not to be the last one.
+     */
+    void unretain() {
+        references.decrementAndGet();
+    }
+
+    /**
+     * Releases this subscriber's reference; call it once per frame taken.
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            owner.recycle(array);
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
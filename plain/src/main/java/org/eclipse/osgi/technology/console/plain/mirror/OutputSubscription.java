@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain.mirror;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An observer's bounded queue of {@link ConsoleMirror} output. When it is
+ * full, frames are dropped for this subscriber; {@link #dropped()} and gaps in
+ * {@link OutputFrame#sequence()} show what was lost. Every frame taken from
+ * the queue must be released.
+ */
+public final class OutputSubscription implements AutoCloseable {
+
+    private final ArrayBlockingQueue<OutputFrame> queue;
+    private final ConsoleMirror mirror;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    OutputSubscription(int capacity, ConsoleMirror mirror) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.mirror = mirror;
+    }
+
+    boolean offer(OutputFrame frame) {
+        if (closed || !queue.offer(frame)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next frame, or {@code null} if there is none.
+     */
+    public OutputFrame poll() {
+        return queue.poll();
+    }
+
+    /**
+     * Waits up to the given time for the next frame. Returns {@code null} if
+     * none arrived or the subscription is closed.
+     */
+    public OutputFrame poll(long timeout, TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        OutputFrame frame;
+        // wakes up now and then to notice a close
+        while ((frame = queue.poll(Math.min(deadline - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(100)),
+                TimeUnit.NANOSECONDS)) == null) {
+            if (closed || System.nanoTime() >= deadline) {
+                return null;
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Waits for the next frame. Returns {@code null} once the subscription or
+     * the console is closed.
+     */
+    public OutputFrame take() throws InterruptedException {
+        OutputFrame frame;
+        while ((frame = poll(1, TimeUnit.SECONDS)) == null) {
+            if (closed) {
+                return null;
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Returns the number of frames dropped because the queue was full.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Ends the subscription and releases the frames still queued.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        mirror.unsubscribe(this);
+        OutputFrame frame;
+        while ((frame = queue.poll()) != null) {
+            frame.release();
+        }
+    }
+}
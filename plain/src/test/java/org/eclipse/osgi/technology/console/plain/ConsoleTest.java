@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.felix.service.command.CommandSession;
+import org.apache.felix.service.command.Converter;
+import org.junit.jupiter.api.Test;
+
+public class ConsoleTest {
+
+    @Test
+    void printedResultIsGoverned() throws Exception {
+        var sink = new ByteArrayOutputStream();
+        var governor = new OutputGovernor(sink, null, OutputGovernor.Policy.SUMMARIZE, 20);
+        var result = IntStream.range(0, 1000).mapToObj(i -> "line " + i).toList();
+
+        var session = mock(CommandSession.class);
+        when(session.getKeyboard()).thenReturn(new ByteArrayInputStream("big\n".getBytes(StandardCharsets.US_ASCII)));
+        when(session.getConsole()).thenReturn(new PrintStream(governor, true, StandardCharsets.US_ASCII));
+        when(session.get(OutputGovernor.SESSION_VARIABLE)).thenReturn(governor);
+        // the console passes the line as it was read, not as a String
+        when(session.execute(argThat(line -> "big".contentEquals(line)))).thenReturn(result);
+        when(session.format(result, Converter.INSPECT))
+                .thenReturn(result.stream().collect(Collectors.joining("\n")));
+
+        new Console(session, new HistoryService()).run();
+
+        var output = sink.toString(StandardCharsets.US_ASCII);
+        assertTrue(output.contains("lines suppressed]"), output);
+        assertFalse(output.contains("line 999"), output);
+    }
+
+    @Test
+    void printedTextBecomesOutputRecords() throws Exception {
+        var sink = new ByteArrayOutputStream();
+        var capture = new JsonLinesCapture(sink, StandardCharsets.UTF_8);
+        var console = new PrintStream(capture, true, StandardCharsets.UTF_8);
+
+        var session = mock(CommandSession.class);
+        when(session.getKeyboard()).thenReturn(new ByteArrayInputStream("greet\n".getBytes(StandardCharsets.US_ASCII)));
+        when(session.getConsole()).thenReturn(console);
+        when(session.get(JsonLinesWriter.OUTPUT_MODE)).thenReturn(JsonLinesWriter.JSON_LINES);
+        when(session.get(JsonLinesCapture.SESSION_VARIABLE)).thenReturn(capture);
+        doAnswer(invocation -> {
+            console.println("hello");
+            console.print("w\u00f6rld");
+            return 42;
+        }).when(session).execute(argThat(line -> "greet".contentEquals(line)));
+
+        new Console(session, new HistoryService()).run();
+
+        var lines = sink.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(List.of("{\"type\":\"output\",\"text\":\"hello\"}",
+                "{\"type\":\"output\",\"text\":\"w\u00f6rld\"}", "{\"type\":\"result\",\"value\":42}"),
+                lines.subList(0, 3));
+        assertTrue(lines.get(3).startsWith("{\"type\":\"end\",\"command\":\"greet\",\"status\":\"ok\",\"count\":1,"),
+                lines.get(3));
+        assertEquals(4, lines.size());
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class JsonLinesCaptureTest {
+
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    private final JsonLinesCapture capture = new JsonLinesCapture(sink, StandardCharsets.UTF_8);
+    private final PrintStream console = new PrintStream(capture, true, StandardCharsets.UTF_8);
+
+    @Test
+    void linesAreWrappedOnlyWhileCapturing() throws Exception {
+        console.print("prompt> ");
+        capture.begin();
+        console.print("one\r\ntw");
+        console.print("o \"quoted\"\nrest");
+        capture.end();
+        console.print("after\n");
+
+        assertEquals("prompt> {\"type\":\"output\",\"text\":\"one\"}\n"
+                + "{\"type\":\"output\",\"text\":\"two \\\"quoted\\\"\"}\n"
+                + "{\"type\":\"output\",\"text\":\"rest\"}\n"
+                + "after\n", sink.toString(StandardCharsets.UTF_8));
+    }
+}
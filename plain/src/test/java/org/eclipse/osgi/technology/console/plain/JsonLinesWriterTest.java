@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class JsonLinesWriterTest {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final JsonLinesWriter writer = new JsonLinesWriter(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+
+    private List<String> lines() {
+        return buffer.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Test
+    void collectionIsStreamedElementByElement() {
+        writer.result(List.of("a", "b\"c"));
+        writer.end("lb", true, 0);
+
+        var lines = lines();
+        assertEquals(3, lines.size());
+        assertEquals("{\"type\":\"item\",\"index\":0,\"value\":\"a\"}", lines.get(0));
+        assertEquals("{\"type\":\"item\",\"index\":1,\"value\":\"b\\\"c\"}", lines.get(1));
+        assertTrue(lines.get(2).startsWith("{\"type\":\"end\",\"command\":\"lb\",\"status\":\"ok\",\"count\":2,"));
+    }
+
+    @Test
+    void mapsAndScalarsAreSingleRecords() {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("id", 1);
+        map.put("names", new String[] { "x", null });
+        writer.result(map);
+
+        assertEquals(List.of("{\"type\":\"result\",\"value\":{\"id\":1,\"names\":[\"x\",null]}}"), lines());
+    }
+
+    @Test
+    void errorsAreStructured() {
+        writer.error("gogo", new IOException("disk\nfull", new IllegalStateException("cause")));
+        writer.end("df", false, 0);
+
+        var lines = lines();
+        assertEquals("{\"type\":\"error\",\"location\":\"gogo\",\"exception\":\"java.io.IOException\","
+                + "\"message\":\"disk\\nfull\",\"causes\":[{\"exception\":\"java.lang.IllegalStateException\","
+                + "\"message\":\"cause\"}]}", lines.get(0));
+        assertTrue(lines.get(1).contains("\"status\":\"error\",\"count\":0"));
+    }
+}
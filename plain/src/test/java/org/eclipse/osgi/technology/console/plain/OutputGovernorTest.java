@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class OutputGovernorTest {
+
+    private static byte[] lines(int count) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void noRateMeansNoGovernor() {
+        var sink = new ByteArrayOutputStream();
+        assertSame(sink, OutputGovernor.govern(sink, null, Map.<String, String>of()::get));
+    }
+
+    @Test
+    void invalidPropertiesFallBackToDefaults() {
+        var sink = new ByteArrayOutputStream();
+        assertSame(sink, OutputGovernor.govern(sink, null, Map.of(OutputGovernor.RATE_PROPERTY, "fast")::get));
+
+        var governed = OutputGovernor.govern(sink, null,
+                Map.of(OutputGovernor.RATE_PROPERTY, " 100 ", OutputGovernor.POLICY_PROPERTY, "sometimes")::get);
+        assertInstanceOf(OutputGovernor.class, governed);
+    }
+
+    @Test
+    void summarizeDropsLinesAboveRate() throws Exception {
+        var sink = new ByteArrayOutputStream();
+        var governor = new OutputGovernor(sink, null, OutputGovernor.Policy.SUMMARIZE, 20);
+
+        governor.commandStarted();
+        governor.write(lines(1000));
+        governor.commandFinished();
+
+        var output = sink.toString(StandardCharsets.US_ASCII).lines().toList();
+        // "line 0\n" and "line 1\n" fit into the 20 byte burst
+        assertEquals(3, output.size());
+        assertEquals("line 1", output.get(1));
+        assertEquals(String.format(Locale.ROOT, "[%,d lines suppressed]", 998), output.get(2));
+    }
+
+    @Test
+    void moreWaitsForTheUserAndQuitSkipsTheRest() throws Exception {
+        var sink = new ByteArrayOutputStream();
+        var keyboard = new ByteArrayInputStream("\nq\n".getBytes(StandardCharsets.US_ASCII));
+        var governor = new OutputGovernor(sink, keyboard, OutputGovernor.Policy.MORE, 14);
+
+        governor.commandStarted();
+        governor.write(lines(10));
+        governor.commandFinished();
+
+        var output = sink.toString(StandardCharsets.US_ASCII);
+        assertEquals("line 0\nline 1\n--more--\r        \rline 2\nline 3\n--more--\r        \r"
+                + String.format(Locale.ROOT, "[%,d lines suppressed]%n", 6), output);
+    }
+
+    @Test
+    void outputOutsideCommandsIsNotMetered() throws Exception {
+        var sink = new ByteArrayOutputStream();
+        var governor = new OutputGovernor(sink, null, OutputGovernor.Policy.SUMMARIZE, 1);
+
+        governor.write(lines(100));
+
+        assertEquals(100, sink.toString(StandardCharsets.US_ASCII).lines().count());
+    }
+}
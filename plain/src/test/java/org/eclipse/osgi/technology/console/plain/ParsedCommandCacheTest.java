@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.felix.gogo.runtime.CommandSessionImpl;
+import org.apache.felix.service.command.CommandSession;
+import org.junit.jupiter.api.Test;
+
+public class ParsedCommandCacheTest {
+
+    @Test
+    void repeatedLinesAreHits() {
+        var cache = new ParsedCommandCache(4);
+        var program = cache.program("echo hello");
+
+        assertSame(program, cache.program("echo hello"));
+        cache.program("echo world");
+
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void leastRecentlyUsedLineIsEvicted() {
+        var cache = new ParsedCommandCache(2);
+        var a = cache.program("a");
+        var b = cache.program("b");
+        cache.program("a");
+        // b is the least recently used line now
+        cache.program("c");
+
+        assertSame(a, cache.program("a"));
+        assertNotSame(b, cache.program("b"));
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+        assertEquals("size=2/2 hits=2 misses=4 invalidations=0", cache.statistics());
+    }
+
+    @Test
+    void invalidateDropsAllPrograms() {
+        var cache = new ParsedCommandCache(4);
+        var program = cache.program("a");
+
+        cache.invalidate();
+        // an empty cache is not invalidated again
+        cache.invalidate();
+
+        assertNotSame(program, cache.program("a"));
+        assertEquals(2, cache.misses());
+        assertEquals("size=1/4 hits=0 misses=2 invalidations=1", cache.statistics());
+    }
+
+    @Test
+    void capacityZeroExecutesThroughTheSession() throws Exception {
+        var cache = new ParsedCommandCache(0);
+        var session = mock(CommandSessionImpl.class);
+        when(session.execute("lb")).thenReturn("bundles");
+
+        assertEquals("bundles", cache.execute(session, "lb"));
+        verify(session).execute("lb");
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    void cachedProgramsExecuteThroughTheSession() throws Exception {
+        var cache = new ParsedCommandCache(4);
+        var session = mock(CommandSessionImpl.class);
+        var program = cache.program("lb");
+        when(session.execute(same(program))).thenReturn("bundles");
+
+        assertEquals("bundles", cache.execute(session, "lb"));
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void unparsableLinesExecuteAsText() throws Exception {
+        var cache = new ParsedCommandCache(4);
+        var session = mock(CommandSessionImpl.class);
+        when(session.execute("echo (")).thenReturn("error");
+
+        assertEquals("error", cache.execute(session, "echo ("));
+        assertEquals("size=0/4 hits=0 misses=1 invalidations=0", cache.statistics());
+    }
+
+    @Test
+    void foreignSessionsExecuteThroughTheSession() throws Exception {
+        var cache = new ParsedCommandCache(4);
+        var session = mock(CommandSession.class);
+        when(session.execute("lb")).thenReturn("bundles");
+
+        assertEquals("bundles", cache.execute(session, "lb"));
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    void capacityDefaultsToDisabled() {
+        assertEquals("size=0/0 hits=0 misses=0 invalidations=0",
+                ParsedCommandCache.fromProperty(null).statistics());
+        assertEquals("size=0/0 hits=0 misses=0 invalidations=0",
+                ParsedCommandCache.fromProperty("many").statistics());
+        assertEquals("size=0/8 hits=0 misses=0 invalidations=0",
+                ParsedCommandCache.fromProperty(" 8 ").statistics());
+    }
+}
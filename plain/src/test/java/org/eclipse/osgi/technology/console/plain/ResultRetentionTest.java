@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.felix.service.command.CommandSession;
+import org.apache.felix.service.command.Function;
+import org.junit.jupiter.api.Test;
+
+public class ResultRetentionTest {
+
+    private final Map<String, Object> variables = new HashMap<>();
+
+    private CommandSession session() {
+        var session = mock(CommandSession.class);
+        doAnswer(invocation -> variables.put(invocation.getArgument(0), invocation.getArgument(1))).when(session)
+                .put(anyString(), any());
+        return session;
+    }
+
+    @Test
+    void estimateStopsAtLimit() {
+        var big = new ArrayList<String>();
+        for (int i = 0; i < 100_000; i++) {
+            big.add("line " + i);
+        }
+        assertTrue(SizeEstimator.estimate(big, 1024) > 1024);
+        assertTrue(SizeEstimator.estimate("abc", Long.MAX_VALUE) < 1024);
+    }
+
+    @Test
+    void smallResultIsKeptAsPlainVariable() {
+        var retention = new ResultRetention();
+        retention.retain(session(), "_", "small");
+
+        assertEquals("small", variables.get("_"));
+        assertNull(variables.get("#_"));
+    }
+
+    @Test
+    void largeResultIsNotPinnedBySession() throws Exception {
+        var retention = new ResultRetention(ResultRetention.Strength.STRONG, 64, 0);
+        var session = session();
+        var large = List.of("aaaaaaaaaaaaaaaaaaaa", "bbbbbbbbbbbbbbbbbbbb", "cccccccccccccccccccc");
+        retention.retain(session, "_", large);
+
+        assertNull(variables.get("_"));
+        var dynamic = assertInstanceOf(Function.class, variables.get("#_"));
+        assertEquals(large, dynamic.execute(session, null));
+    }
+
+    @Test
+    void ringKeepsLastResultsNewestFirst() {
+        var retention = new ResultRetention(ResultRetention.Strength.STRONG, 1024, 2);
+        var session = session();
+        retention.attach(session);
+        retention.retain(session, "_", "one");
+        retention.retain(session, "_", "two");
+        retention.retain(session, "_", "three");
+
+        assertEquals(List.of("three", "two"), retention.recent());
+        assertInstanceOf(Function.class, variables.get("#" + ResultRetention.RING_VARIABLE));
+    }
+
+    @Test
+    void invalidPropertiesFallBackToDefaults() {
+        var retention = ResultRetention.fromProperties(Map.of(ResultRetention.STRENGTH_PROPERTY, "sturdy",
+                ResultRetention.MAX_SIZE_PROPERTY, "16M", ResultRetention.RING_PROPERTY, "-1")::get);
+        var session = session();
+        retention.attach(session);
+        retention.retain(session, "_", "small");
+
+        // strong, 16 MiB and no ring
+        assertEquals("small", variables.get("_"));
+        assertNull(variables.get("#" + ResultRetention.RING_VARIABLE));
+        assertEquals(List.of(), retention.recent());
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.plain.mirror;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class ConsoleMirrorTest {
+
+    private static String text(OutputFrame frame) {
+        var data = frame.data();
+        var bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void subscribersShareEachFlushedChunk() throws Exception {
+        var sink = new ByteArrayOutputStream();
+        var mirror = new ConsoleMirror(sink);
+        var first = mirror.subscribe(4);
+        var second = mirror.subscribe(4);
+
+        mirror.write("g! ".getBytes(StandardCharsets.US_ASCII));
+        mirror.write('l');
+        mirror.write("b\n".getBytes(StandardCharsets.US_ASCII));
+        mirror.flush();
+
+        assertEquals("g! lb\n", sink.toString(StandardCharsets.US_ASCII));
+        var a = first.poll();
+        var b = second.poll();
+        assertEquals("g! lb\n", text(a));
+        assertEquals("g! lb\n", text(b));
+        assertTrue(a == b, "the chunk is shared, not copied");
+        assertTrue(a.data().isReadOnly());
+        a.release();
+        b.release();
+    }
+
+    @Test
+    void slowSubscriberDropsChunks() throws Exception {
+        var mirror = new ConsoleMirror(new ByteArrayOutputStream());
+        var slow = mirror.subscribe(1);
+        var fast = mirror.subscribe(8);
+
+        for (var i = 0; i < 5; i++) {
+            mirror.write(("line " + i + "\n").getBytes(StandardCharsets.US_ASCII));
+            mirror.flush();
+        }
+
+        assertEquals(4, slow.dropped());
+        assertEquals(0, slow.poll().sequence());
+        assertNull(slow.poll());
+        assertEquals(0, fast.dropped());
+        for (var i = 0; i < 5; i++) {
+            var frame = fast.poll();
+            assertEquals(i, frame.sequence());
+            assertEquals("line " + i + "\n", text(frame));
+            frame.release();
+        }
+    }
+
+    @Test
+    void closeEndsSubscriptions() throws Exception {
+        var mirror = new ConsoleMirror(new ByteArrayOutputStream());
+        var subscription = mirror.subscribe(2);
+
+        mirror.write('x');
+        mirror.close();
+
+        assertNull(subscription.take());
+        assertTrue(subscription.isClosed());
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.benchmark;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.osgi.technology.console.ui.jline.JlineAdapterTerminal;
+import org.eclipse.osgi.technology.console.ui.jline.headless.HeadlessTerminal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+
+/**
+ * Input throughput of the {@link JlineAdapterTerminal}, in keys per second.
+ *
+ * <p>
+ * Each invocation types a burst of keys into a {@link HeadlessTerminal} and
+ * reads them back with {@link JlineAdapterTerminal#readInput()}, so the score
+ * covers the JLine reader, the decoder and the hand-over from the input thread.
+ * A trailing F12 marks the end of the burst.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputBenchmark {
+
+	static final int KEYS = 1_000;
+
+	private static final String END = "\u001B[24~";
+
+	private byte[] typing;
+	private byte[] mouse;
+	private HeadlessTerminal headless;
+	private JlineAdapterTerminal terminal;
+
+	@Setup(Level.Trial)
+	public void prepare() throws IOException {
+		// text mixed with cursor keys, modified keys and function keys
+		var text = new StringBuilder();
+		for (int i = 0; i < KEYS; i++) {
+			switch (i % 10) {
+			case 7 -> text.append("\u001B[A");
+			case 8 -> text.append("\u001B[1;5C");
+			case 9 -> text.append("\u001B[15~");
+			default -> text.append((char) ('a' + i % 26));
+			}
+		}
+		typing = text.append(END).toString().getBytes(StandardCharsets.UTF_8);
+
+		// SGR mouse reports of a drag across the screen
+		var reports = new StringBuilder();
+		for (int i = 0; i < KEYS; i++) {
+			reports.append("\u001B[<32;").append(1 + i % 200).append(';').append(1 + i % 50).append('M');
+		}
+		mouse = reports.append(END).toString().getBytes(StandardCharsets.UTF_8);
+
+		headless = new HeadlessTerminal(200, 50, Map.of(JlineAdapterTerminal.SYNCHRONIZED_OUTPUT, "off"));
+		terminal = headless.terminal();
+		terminal.enterPrivateMode();
+		// starts the input thread; input() blocks while JLine's small input pipe is full
+		terminal.pollInput();
+	}
+
+	@TearDown(Level.Trial)
+	public void close() throws IOException {
+		headless.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public void keys(Blackhole blackhole) throws IOException {
+		headless.input(typing);
+		drain(blackhole);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public void mouseReports(Blackhole blackhole) throws IOException {
+		headless.input(mouse);
+		drain(blackhole);
+	}
+
+	/**
+	 * Reads keys up to the end marker. Mouse reports may arrive merged, so the
+	 * number of keys read is not fixed.
+	 */
+	private void drain(Blackhole blackhole) throws IOException {
+		KeyStroke key;
+		while ((key = terminal.readInput()) != null && key.getKeyType() != KeyType.F12) {
+			if (key.getKeyType() == KeyType.EOF) {
+				throw new EOFException("Terminal closed");
+			}
+			blackhole.consume(key);
+		}
+	}
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.gui2.ActionListBox;
+import com.googlecode.lanterna.gui2.BasicWindow;
+import com.googlecode.lanterna.gui2.Borders;
+import com.googlecode.lanterna.gui2.Button;
+import com.googlecode.lanterna.gui2.Direction;
+import com.googlecode.lanterna.gui2.EmptySpace;
+import com.googlecode.lanterna.gui2.Label;
+import com.googlecode.lanterna.gui2.LinearLayout;
+import com.googlecode.lanterna.gui2.MultiWindowTextGUI;
+import com.googlecode.lanterna.gui2.Panel;
+import com.googlecode.lanterna.gui2.Separator;
+import com.googlecode.lanterna.gui2.Window;
+import com.googlecode.lanterna.screen.Screen;
+
+/**
+ * Frames per second of typical Lanterna workloads on the
+ * {@link org.eclipse.osgi.technology.console.ui.jline.JlineAdapterTerminal}.
+ *
+ * <p>
+ * Each invocation changes the content and renders exactly one frame, so the
+ * score is the frame rate. {@link FrameCounters} adds the frames and bytes
+ * actually flushed; run with {@code -prof gc} for the allocations per frame.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+	/**
+	 * Terminal and sink shared by all scenarios.
+	 */
+	@State(Scope.Thread)
+	public abstract static class Scenario {
+
+		@Param({ RenderTarget.DISCARD, RenderTarget.SCREEN })
+		public String sink;
+
+		@Param({ RenderTarget.LANTERNA, RenderTarget.PACKED })
+		public String buffer;
+
+		@Param({ "truecolor", "256" })
+		public String colors;
+
+		@Param({ "120" })
+		public int columns;
+
+		@Param({ "40" })
+		public int rows;
+
+		RenderTarget target;
+
+		@Setup(Level.Trial)
+		public void open() throws IOException {
+			target = new RenderTarget(sink, buffer, colors, columns, rows);
+			build(target.screen());
+		}
+
+		@TearDown(Level.Trial)
+		public void close() throws IOException {
+			target.close();
+		}
+
+		abstract void build(Screen screen) throws IOException;
+	}
+
+	/**
+	 * The window of the demo bundle with its live counter ticking.
+	 */
+	public static class DemoWindow extends Scenario {
+
+		MultiWindowTextGUI gui;
+		Label counter;
+		int seconds;
+
+		@Override
+		void build(Screen screen) throws IOException {
+			gui = new MultiWindowTextGUI(screen);
+			counter = new Label("Live Counter: 0 Sekunden");
+			gui.addWindow(demoWindow(screen.getTerminalSize(), counter));
+			gui.updateScreen();
+		}
+	}
+
+	/**
+	 * A full-screen list of 5,000 actions, scrolled one row per frame.
+	 */
+	public static class LongList extends Scenario {
+
+		static final int ITEMS = 5_000;
+
+		MultiWindowTextGUI gui;
+		ActionListBox list;
+
+		@Override
+		void build(Screen screen) throws IOException {
+			gui = new MultiWindowTextGUI(screen);
+			list = new ActionListBox();
+			for (int i = 0; i < ITEMS; i++) {
+				list.addItem("Aktion " + i + ": Bundle org.example.bundle" + i, () -> {
+				});
+			}
+			var window = new BasicWindow("Aktionen");
+			window.setHints(List.of(Window.Hint.FULL_SCREEN));
+			window.setComponent(list);
+			gui.addWindow(window);
+			gui.updateScreen();
+		}
+	}
+
+	/**
+	 * A full-screen RGB gradient that shifts by one column per frame, so every
+	 * cell changes its color.
+	 */
+	public static class Gradient extends Scenario {
+
+		Screen screen;
+		TextCharacter[] cells;
+		int phase;
+
+		@Override
+		void build(Screen screen) {
+			this.screen = screen;
+			// one period of colors, wide enough for the screen and every phase
+			cells = new TextCharacter[2 * columns];
+			for (int i = 0; i < cells.length; i++) {
+				int red = 255 * (i % columns) / columns;
+				var background = new TextColor.RGB(red, 64, 255 - red);
+				cells[i] = TextCharacter.fromCharacter(' ', TextColor.ANSI.DEFAULT, background)[0];
+			}
+		}
+	}
+
+	@Benchmark
+	public void demoWindow(DemoWindow state, FrameCounters counters) throws IOException {
+		state.counter.setText("Live Counter: " + ++state.seconds + " Sekunden");
+		state.gui.updateScreen();
+		state.target.count(counters);
+	}
+
+	@Benchmark
+	public void scrollList(LongList state, FrameCounters counters) throws IOException {
+		var list = state.list;
+		list.setSelectedIndex((list.getSelectedIndex() + 1) % LongList.ITEMS);
+		state.gui.updateScreen();
+		state.target.count(counters);
+	}
+
+	@Benchmark
+	public void gradient(Gradient state, FrameCounters counters) throws IOException {
+		int phase = state.phase = (state.phase + 1) % state.columns;
+		for (int row = 0; row < state.rows; row++) {
+			for (int column = 0; column < state.columns; column++) {
+				state.screen.setCharacter(column, row, state.cells[phase + column + row % 2]);
+			}
+		}
+		state.screen.refresh();
+		state.target.count(counters);
+	}
+
+	/**
+	 * Rebuilds the window of the demo bundle: the same components, borders and
+	 * texts, without its listeners and timers.
+	 */
+	static Window demoWindow(TerminalSize size, Label liveCounter) {
+		var window = new BasicWindow("OSGi Console UI Demo - Tab=Navigieren, Enter=Aktivieren");
+
+		var mainPanel = new Panel();
+		mainPanel.setLayoutManager(new LinearLayout(Direction.VERTICAL));
+
+		var actions = new ActionListBox();
+		actions.addItem("Aktion 1: Zähler erhöhen", () -> {
+		});
+		actions.addItem("Aktion 2: Status zurücksetzen", () -> {
+		});
+		actions.addItem("Aktion 3: Test-Nachricht", () -> {
+		});
+
+		var buttonPanel = new Panel();
+		buttonPanel.setLayoutManager(new LinearLayout(Direction.HORIZONTAL));
+		buttonPanel.addComponent(new Button("Info"));
+		buttonPanel.addComponent(new Button("Reset"));
+		buttonPanel.addComponent(new Button("Test"));
+
+		var sizeLabel = new Label(
+				String.format("Terminal-Größe: %dx%d", size.getColumns(), size.getRows()));
+		addBordered(mainPanel, sizeLabel, "Terminal-Größe");
+		addBordered(mainPanel, liveCounter, "Live Timer");
+		addBordered(mainPanel, new Label("Pfeiltasten: Keine gedrückt"), "Pfeiltasten Test");
+		addBordered(mainPanel, new Label("Maus-Position: Keine Bewegung erkannt"), "Maus-Position");
+		addBordered(mainPanel, new Label("Maus-Button: Kein Klick erkannt"), "Maus-Button");
+		addBordered(mainPanel, new Label("Maus-Aktion: Keine Aktion erkannt"), "Maus-Aktion");
+		addBordered(mainPanel, new Label("Event-Typ: -"), "Maus-Event-Typ");
+		addBordered(mainPanel, new Label("Position: Keine Eingabe erkannt"), "Input Debug");
+		addBordered(mainPanel, new Label(""), "Getippte Zeichen");
+		addBordered(mainPanel,
+				new Label("Status: Bereit. Navigieren Sie mit Tab, aktivieren Sie mit Enter."), "Status");
+		mainPanel.addComponent(actions.withBorder(Borders.singleLine("Aktionen (Enter drücken)")));
+		mainPanel.addComponent(new EmptySpace(TerminalSize.ONE));
+		mainPanel.addComponent(buttonPanel.withBorder(Borders.singleLine("Buttons")));
+		mainPanel.addComponent(new EmptySpace(TerminalSize.ONE));
+		mainPanel.addComponent(new Separator(Direction.HORIZONTAL));
+		mainPanel.addComponent(new Button("Beenden (Exit)", window::close));
+
+		window.setComponent(mainPanel);
+		return window;
+	}
+
+	private static void addBordered(Panel panel, Label label, String title) {
+		panel.addComponent(label.withBorder(Borders.singleLine(title)));
+		panel.addComponent(new EmptySpace(TerminalSize.ONE));
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.eclipse.osgi.technology.console.ui.jline.JlineAdapterTerminal;
+import org.eclipse.osgi.technology.console.ui.jline.PackedScreen;
+import org.eclipse.osgi.technology.console.ui.jline.TerminalMetrics;
+import org.eclipse.osgi.technology.console.ui.jline.headless.HeadlessTerminal;
+import org.eclipse.osgi.technology.console.ui.jline.headless.VtScreen;
+import org.jline.terminal.Size;
+import org.jline.terminal.impl.LineDisciplineTerminal;
+
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+
+/**
+ * A started {@link Screen} on a {@link JlineAdapterTerminal} whose output
+ * goes to a sink instead of a tty.
+ *
+ * <p>
+ * The {@code discard} sink drops all bytes and measures the adapter alone; the
+ * {@code screen} sink parses them with a {@link VtScreen}, roughly the work a
+ * terminal emulator has to do for each frame.
+ * </p>
+ */
+final class RenderTarget implements Closeable {
+
+	static final String DISCARD = "discard";
+	static final String SCREEN = "screen";
+
+	static final String LANTERNA = "lanterna";
+	static final String PACKED = "packed";
+
+	private final JlineAdapterTerminal terminal;
+	private final VtScreen vt;
+	private final Screen screen;
+
+	private long flushes;
+	private long bytesWritten;
+	private int undrained;
+
+	/**
+	 * @param buffer {@code lanterna} for Lanterna's {@link TerminalScreen},
+	 *               {@code packed} for the adapter's {@link PackedScreen}
+	 * @param colors the {@link JlineAdapterTerminal#COLORS} setting, so results
+	 *               do not depend on the environment
+	 */
+	RenderTarget(String sink, String buffer, String colors, int columns, int rows) throws IOException {
+		Map<String, Object> properties = Map.of(JlineAdapterTerminal.COLORS, colors);
+		switch (sink) {
+		case DISCARD -> {
+			var jline = new LineDisciplineTerminal("benchmark", "xterm-256color", OutputStream.nullOutputStream(),
+					StandardCharsets.UTF_8);
+			jline.setSize(new Size(columns, rows));
+			this.terminal = new JlineAdapterTerminal(jline, properties);
+			this.vt = null;
+		}
+		case SCREEN -> {
+			var headless = new HeadlessTerminal(columns, rows, properties);
+			this.terminal = headless.terminal();
+			this.vt = headless.screen();
+		}
+		default -> throw new IllegalArgumentException("Unknown sink: " + sink);
+		}
+		this.screen = switch (buffer) {
+		case LANTERNA -> new TerminalScreen(terminal);
+		case PACKED -> new PackedScreen(terminal);
+		default -> throw new IllegalArgumentException("Unknown buffer: " + buffer);
+		};
+		this.screen.startScreen();
+		this.screen.setCursorPosition(null);
+		mark();
+	}
+
+	Screen screen() {
+		return screen;
+	}
+
+	/**
+	 * Adds the frames and bytes written since the last call to the counters.
+	 */
+	void count(FrameCounters counters) {
+		TerminalMetrics metrics = terminal.getMetrics();
+		counters.frames += metrics.flushes() - flushes;
+		counters.bytes += metrics.bytesWritten() - bytesWritten;
+		mark();
+		if (vt != null && ++undrained == 1024) {
+			// the screen keeps per-frame statistics until they are taken
+			undrained = 0;
+			vt.takeFrames();
+		}
+	}
+
+	private void mark() {
+		TerminalMetrics metrics = terminal.getMetrics();
+		flushes = metrics.flushes();
+		bytesWritten = metrics.bytesWritten();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			screen.stopScreen();
+		} finally {
+			// also closes the JLine terminal below
+			terminal.close();
+		}
+	}
+}
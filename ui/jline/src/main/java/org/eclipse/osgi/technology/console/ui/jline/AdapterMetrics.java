@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TerminalMetrics} backed by {@link LongAdder}s, which also emits the
+ * matching {@link TerminalEvents} while JFR records them.
+ */
+final class AdapterMetrics implements TerminalMetrics {
+
+	private final LongAdder polls = new LongAdder();
+	private final LongAdder keystrokes = new LongAdder();
+	private final LongAdder decodeNanos = new LongAdder();
+	private final LongAdder escapeTimeouts = new LongAdder();
+	private final LongAdder flushes = new LongAdder();
+	private final LongAdder bytesWritten = new LongAdder();
+	private final LongAdder flushNanos = new LongAdder();
+
+	void polled() {
+		polls.increment();
+	}
+
+	void decoded(long startNanos, int characters, int keys) {
+		long nanos = System.nanoTime() - startNanos;
+		keystrokes.add(keys);
+		decodeNanos.add(nanos);
+
+		TerminalEvents.InputDecode event = new TerminalEvents.InputDecode();
+		if (event.isEnabled()) {
+			event.characters = characters;
+			event.keystrokes = keys;
+			event.nanos = nanos;
+			event.commit();
+		}
+	}
+
+	void escapeTimeout(int length) {
+		escapeTimeouts.increment();
+
+		TerminalEvents.EscapeTimeout event = new TerminalEvents.EscapeTimeout();
+		if (event.isEnabled()) {
+			event.length = length;
+			event.commit();
+		}
+	}
+
+	void flushed(long startNanos, int bytes) {
+		long nanos = System.nanoTime() - startNanos;
+		flushes.increment();
+		bytesWritten.add(bytes);
+		flushNanos.add(nanos);
+
+		TerminalEvents.FrameFlush event = new TerminalEvents.FrameFlush();
+		if (event.isEnabled()) {
+			event.bytes = bytes;
+			event.nanos = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public long polls() {
+		return polls.sum();
+	}
+
+	@Override
+	public long keystrokes() {
+		return keystrokes.sum();
+	}
+
+	@Override
+	public long decodeNanos() {
+		return decodeNanos.sum();
+	}
+
+	@Override
+	public long escapeTimeouts() {
+		return escapeTimeouts.sum();
+	}
+
+	@Override
+	public long flushes() {
+		return flushes.sum();
+	}
+
+	@Override
+	public long bytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	@Override
+	public long flushNanos() {
+		return flushNanos.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("polls=%d keystrokes=%d decodeNanos=%d escapeTimeouts=%d flushes=%d bytes=%d flushNanos=%d",
+				polls(), keystrokes(), decodeNanos(), escapeTimeouts(), flushes(), bytesWritten(), flushNanos());
+	}
+}
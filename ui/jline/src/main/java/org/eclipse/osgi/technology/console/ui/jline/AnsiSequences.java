@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.osgi.technology.console.ui.jline.TerminalCapabilities.ColorDepth;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextColor;
+
+/**
+ * Precomputed ANSI escape sequences for the attributes and colors used by
+ * {@link JlineAdapterTerminal}.
+ *
+ * <p>
+ * SGR attributes, the 16 ANSI colors (plus the default color) and the 256
+ * indexed colors are encoded to bytes once at class initialization. RGB
+ * colors are encoded on first use and kept in a small direct-mapped cache.
+ * Cursor addressing appends its digits straight into the frame buffer.
+ * </p>
+ *
+ * <p>
+ * Colors beyond the terminal's {@link ColorDepth} are mapped to the nearest
+ * one it renders, and palette colors 0-15 use the shorter ANSI sequences.
+ * </p>
+ */
+final class AnsiSequences {
+
+	static final String CSI = "\u001B[";
+	static final byte[] RESET = bytes(CSI + "0m");
+	static final byte[] CLEAR_SCREEN = bytes(CSI + "2J" + CSI + "1;1H");
+	static final byte[] RESET_SCROLL_REGION = bytes(CSI + "r");
+
+	private static final byte[] CSI_BYTES = bytes(CSI);
+	private static final byte[] CRLF = bytes("\r\n");
+
+	private static final byte[][] SGR_ON = new byte[SGR.values().length][];
+	private static final byte[][] SGR_OFF = new byte[SGR.values().length][];
+
+	private static final byte[][] ANSI_FG = new byte[TextColor.ANSI.values().length][];
+	private static final byte[][] ANSI_BG = new byte[TextColor.ANSI.values().length][];
+
+	private static final byte[][] INDEXED_FG = new byte[256][];
+	private static final byte[][] INDEXED_BG = new byte[256][];
+
+	// the ANSI colors in palette order, without DEFAULT
+	private static final TextColor.ANSI[] PALETTE_ANSI = new TextColor.ANSI[16];
+
+	private static final int RGB_CACHE_SIZE = 64;
+
+	static {
+		sgr(SGR.BOLD, 1, 22);
+		sgr(SGR.REVERSE, 7, 27);
+		sgr(SGR.UNDERLINE, 4, 24);
+		sgr(SGR.BLINK, 5, 25);
+		sgr(SGR.BORDERED, 51, 54);
+		sgr(SGR.FRAKTUR, 20, 23);
+		sgr(SGR.CROSSED_OUT, 9, 29);
+		sgr(SGR.CIRCLED, 52, 54);
+		sgr(SGR.ITALIC, 3, 23);
+
+		// Lanterna knows the parameters of its ANSI colors, including DEFAULT and
+		// the bright variants; encode them once
+		for (TextColor.ANSI color : TextColor.ANSI.values()) {
+			ANSI_FG[color.ordinal()] = sgr(color.getForegroundSGRSequence());
+			ANSI_BG[color.ordinal()] = sgr(color.getBackgroundSGRSequence());
+		}
+
+		int next = 0;
+		for (TextColor.ANSI color : TextColor.ANSI.values()) {
+			if (color != TextColor.ANSI.DEFAULT) {
+				PALETTE_ANSI[next++] = color;
+			}
+		}
+
+		for (int i = 0; i < 256; i++) {
+			INDEXED_FG[i] = bytes(CSI + "38;5;" + i + "m");
+			INDEXED_BG[i] = bytes(CSI + "48;5;" + i + "m");
+		}
+	}
+
+	private final ColorDepth depth;
+	private final int[] rgbKeys = new int[RGB_CACHE_SIZE];
+	private final byte[][] rgbValues = new byte[RGB_CACHE_SIZE][];
+	private final Map<TextColor, Integer> indexes = new HashMap<>();
+
+	/**
+	 * @param depth the colors the terminal renders
+	 */
+	AnsiSequences(ColorDepth depth) {
+		this.depth = depth;
+	}
+
+	static byte[] bytes(String sequence) {
+		return sequence.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static byte[] sgr(byte[] parameters) {
+		return bytes(CSI + new String(parameters, StandardCharsets.US_ASCII) + "m");
+	}
+
+	private static void sgr(SGR sgr, int on, int off) {
+		SGR_ON[sgr.ordinal()] = bytes(CSI + on + "m");
+		SGR_OFF[sgr.ordinal()] = bytes(CSI + off + "m");
+	}
+
+	static byte[] enable(SGR sgr) {
+		return SGR_ON[sgr.ordinal()];
+	}
+
+	static byte[] disable(SGR sgr) {
+		return SGR_OFF[sgr.ordinal()];
+	}
+
+	/**
+	 * Returns the attribute that is switched off by the same sequence as
+	 * {@code sgr} (23 ends italic and fraktur, 54 ends framed and encircled),
+	 * or {@code null}.
+	 */
+	static SGR sharedOff(SGR sgr) {
+		return switch (sgr) {
+		case ITALIC -> SGR.FRAKTUR;
+		case FRAKTUR -> SGR.ITALIC;
+		case BORDERED -> SGR.CIRCLED;
+		case CIRCLED -> SGR.BORDERED;
+		default -> null;
+		};
+	}
+
+	/**
+	 * Appends the cursor addressing sequence (CUP) for the zero-based position.
+	 */
+	static void cursor(FrameBuffer out, int column, int row) {
+		out.append(CSI_BYTES);
+		out.appendDecimal(row + 1);
+		out.appendAscii(';');
+		out.appendDecimal(column + 1);
+		out.appendAscii('H');
+	}
+
+	/**
+	 * Appends the cheapest sequence moving the cursor from one zero-based
+	 * position to another: nothing, CR, BS, CR LF, relative moves (CUU, CUD,
+	 * CUF, CUB) or an absolute CUP, whichever encodes in the fewest bytes.
+	 * The cursor must not be in the pending-wrap state of the last column.
+	 */
+	static void move(FrameBuffer out, int fromColumn, int fromRow, int toColumn, int toRow) {
+		int dy = toRow - fromRow;
+		int dx = toColumn - fromColumn;
+		if (dx == 0 && dy == 0) {
+			return;
+		}
+		if (dy == 1 && toColumn == 0) {
+			out.append(CRLF);
+			return;
+		}
+
+		int vertical = dy == 0 ? 0 : relativeCost(Math.abs(dy));
+		int horizontal;
+		boolean carriageReturn = false;
+		if (dx == 0) {
+			horizontal = 0;
+		} else if (toColumn == 0 || dx == -1) {
+			horizontal = 1;
+		} else if (dx > 0) {
+			horizontal = relativeCost(dx);
+		} else {
+			horizontal = relativeCost(-dx);
+			int viaReturn = 1 + relativeCost(toColumn);
+			if (viaReturn < horizontal) {
+				horizontal = viaReturn;
+				carriageReturn = true;
+			}
+		}
+
+		int absolute = 4 + digits(toRow + 1) + digits(toColumn + 1);
+		if (absolute <= vertical + horizontal) {
+			cursor(out, toColumn, toRow);
+			return;
+		}
+
+		if (dy != 0) {
+			relative(out, Math.abs(dy), dy < 0 ? 'A' : 'B');
+		}
+		if (dx == 0) {
+			return;
+		}
+		if (toColumn == 0) {
+			out.appendAscii('\r');
+		} else if (dx == -1) {
+			out.appendAscii('\b');
+		} else if (carriageReturn) {
+			out.appendAscii('\r');
+			relative(out, toColumn, 'C');
+		} else {
+			relative(out, Math.abs(dx), dx > 0 ? 'C' : 'D');
+		}
+	}
+
+	/**
+	 * Appends the scroll region sequence (DECSTBM) for the zero-based rows
+	 * {@code top} to {@code bottom}. Terminals move the cursor home with it.
+	 */
+	static void scrollRegion(FrameBuffer out, int top, int bottom) {
+		out.append(CSI_BYTES);
+		out.appendDecimal(top + 1);
+		out.appendAscii(';');
+		out.appendDecimal(bottom + 1);
+		out.appendAscii('r');
+	}
+
+	/**
+	 * Appends {@code CSI n command}, leaving out the default count of 1.
+	 */
+	static void relative(FrameBuffer out, int distance, char command) {
+		out.append(CSI_BYTES);
+		if (distance != 1) {
+			out.appendDecimal(distance);
+		}
+		out.appendAscii(command);
+	}
+
+	/**
+	 * Returns the length of {@link #relative(FrameBuffer, int, char)}.
+	 */
+	static int relativeCost(int distance) {
+		return distance == 1 ? 3 : 3 + digits(distance);
+	}
+
+	private static int digits(int value) {
+		return value < 10 ? 1 : value < 100 ? 2 : value < 1000 ? 3 : value < 10000 ? 4 : 10;
+	}
+
+	/**
+	 * Returns the sequence selecting {@code color} as foreground color, or
+	 * {@code null} for unsupported color types.
+	 */
+	byte[] foreground(TextColor color) {
+		return color(color, true);
+	}
+
+	/**
+	 * Returns the sequence selecting {@code color} as background color, or
+	 * {@code null} for unsupported color types.
+	 */
+	byte[] background(TextColor color) {
+		return color(color, false);
+	}
+
+	private byte[] color(TextColor color, boolean foreground) {
+		if (color instanceof TextColor.ANSI ansi) {
+			return (foreground ? ANSI_FG : ANSI_BG)[ansi.ordinal()];
+		}
+		if (color instanceof TextColor.Indexed indexed) {
+			return indexed(index(indexed), foreground);
+		}
+		if (color instanceof TextColor.RGB rgb) {
+			int red = rgb.getRed();
+			int green = rgb.getGreen();
+			int blue = rgb.getBlue();
+			return switch (depth) {
+			case TRUECOLOR -> rgb(red, green, blue, foreground);
+			case INDEXED -> indexed(ColorPalette.toIndexed(red, green, blue), foreground);
+			case ANSI -> ansi(ColorPalette.toAnsi(red, green, blue), foreground);
+			};
+		}
+		return null;
+	}
+
+	private byte[] indexed(int index, boolean foreground) {
+		if (index < 16) {
+			return ansi(index, foreground);
+		}
+		if (depth == ColorDepth.ANSI) {
+			return ansi(ColorPalette.indexedToAnsi(index), foreground);
+		}
+		return (foreground ? INDEXED_FG : INDEXED_BG)[index];
+	}
+
+	private static byte[] ansi(int index, boolean foreground) {
+		return (foreground ? ANSI_FG : ANSI_BG)[PALETTE_ANSI[index].ordinal()];
+	}
+
+	/**
+	 * Lanterna does not expose the index of an indexed color, so it is parsed
+	 * from its SGR parameters once per distinct color.
+	 */
+	private int index(TextColor.Indexed color) {
+		Integer index = indexes.get(color);
+		if (index == null) {
+			index = paletteIndex(color);
+			indexes.put(color, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Parses the palette index of an indexed color from its SGR parameters.
+	 */
+	static int paletteIndex(TextColor.Indexed color) {
+		byte[] sgr = color.getForegroundSGRSequence();
+		int value = 0;
+		for (int i = sgr.length - 1, scale = 1; i >= 0 && sgr[i] != ';'; i--, scale *= 10) {
+			value += (sgr[i] - '0') * scale;
+		}
+		return value & 0xFF;
+	}
+
+	private byte[] rgb(int red, int green, int blue, boolean foreground) {
+		int key = (foreground ? 0x1000000 : 0x2000000) | red << 16 | green << 8 | blue;
+		int slot = (key * 0x9E3779B1) >>> (32 - Integer.numberOfTrailingZeros(RGB_CACHE_SIZE));
+		if (rgbKeys[slot] == key) {
+			return rgbValues[slot];
+		}
+		byte[] sequence = bytes(CSI + (foreground ? "38;2;" : "48;2;") + red + ';' + green + ';' + blue + 'm');
+		rgbKeys[slot] = key;
+		rgbValues[slot] = sequence;
+		return sequence;
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.util.Arrays;
+
+import org.jline.utils.WCWidth;
+
+/**
+ * Display width of code points, as used to track the cursor column.
+ *
+ * <p>
+ * Widths come from JLine's {@link WCWidth}. Results for the Basic Multilingual
+ * Plane are cached in a lazily filled table, so the common case is a single
+ * array lookup.
+ * </p>
+ */
+final class CharacterWidths {
+
+	private static final byte UNKNOWN = Byte.MIN_VALUE;
+	private static final byte[] BMP = new byte[0x10000];
+
+	static {
+		Arrays.fill(BMP, UNKNOWN);
+		for (int c = ' '; c < 0x7F; c++) {
+			BMP[c] = 1;
+		}
+	}
+
+	private CharacterWidths() {
+	}
+
+	/**
+	 * Returns the number of columns {@code codePoint} occupies: {@code 0} for
+	 * combining characters, {@code 2} for wide characters and {@code -1} for
+	 * control characters.
+	 */
+	static int of(int codePoint) {
+		if (codePoint < BMP.length) {
+			byte width = BMP[codePoint];
+			if (width == UNKNOWN) {
+				// racy but idempotent, every thread computes the same value
+				width = (byte) WCWidth.wcwidth(codePoint);
+				BMP[codePoint] = width;
+			}
+			return width;
+		}
+		return WCWidth.wcwidth(codePoint);
+	}
+}
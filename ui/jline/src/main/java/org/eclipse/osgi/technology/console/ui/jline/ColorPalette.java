@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+/**
+ * Maps colors a terminal cannot show to the nearest one it can.
+ *
+ * <p>
+ * RGB colors are quantized to 5 bits per channel and looked up in tables of
+ * 32768 entries, one for the 256-color palette and one for the 16 ANSI colors.
+ * The tables are computed on first use, so terminals with true color support
+ * never pay for them. Palette colors assume the xterm defaults.
+ * </p>
+ */
+final class ColorPalette {
+
+	private static final int[] CUBE_LEVELS = { 0, 95, 135, 175, 215, 255 };
+
+	// xterm's default RGB values of the 16 ANSI colors
+	private static final int[] ANSI_RGB = { 0x000000, 0xCD0000, 0x00CD00, 0xCDCD00, 0x0000EE, 0xCD00CD, 0x00CDCD,
+			0xE5E5E5, 0x7F7F7F, 0xFF0000, 0x00FF00, 0xFFFF00, 0x5C5CFF, 0xFF00FF, 0x00FFFF, 0xFFFFFF };
+
+	private static final byte[] INDEXED_TO_ANSI = new byte[256];
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			INDEXED_TO_ANSI[i] = (byte) nearestAnsi(rgbOf(i));
+		}
+	}
+
+	private ColorPalette() {
+	}
+
+	/**
+	 * Returns the 256-color palette index closest to the given color.
+	 */
+	static int toIndexed(int red, int green, int blue) {
+		return Tables.TO_INDEXED[key(red, green, blue)] & 0xFF;
+	}
+
+	/**
+	 * Returns the ANSI color index (0-15) closest to the given color.
+	 */
+	static int toAnsi(int red, int green, int blue) {
+		return Tables.TO_ANSI[key(red, green, blue)];
+	}
+
+	/**
+	 * Returns the ANSI color index (0-15) closest to a 256-color palette entry.
+	 */
+	static int indexedToAnsi(int index) {
+		return INDEXED_TO_ANSI[index];
+	}
+
+	private static int key(int red, int green, int blue) {
+		return (red >> 3) << 10 | (green >> 3) << 5 | blue >> 3;
+	}
+
+	/**
+	 * Returns the RGB value of a 256-color palette entry.
+	 */
+	static int rgbOf(int index) {
+		if (index < 16) {
+			return ANSI_RGB[index];
+		}
+		if (index < 232) {
+			int cube = index - 16;
+			return CUBE_LEVELS[cube / 36] << 16 | CUBE_LEVELS[cube / 6 % 6] << 8 | CUBE_LEVELS[cube % 6];
+		}
+		int gray = 8 + 10 * (index - 232);
+		return gray << 16 | gray << 8 | gray;
+	}
+
+	/**
+	 * Picks the closer of the nearest color cube entry and the nearest gray,
+	 * the way terminals with 256 colors usually approximate RGB. The ANSI
+	 * entries 0-15 are skipped, as their values differ between terminals.
+	 */
+	private static int nearestIndexed(int rgb) {
+		int red = rgb >> 16 & 0xFF;
+		int green = rgb >> 8 & 0xFF;
+		int blue = rgb & 0xFF;
+		int cube = 16 + 36 * cubeStep(red) + 6 * cubeStep(green) + cubeStep(blue);
+
+		int average = (red + green + blue) / 3;
+		int gray = 232 + Math.min(23, Math.max(0, average - 3) / 10);
+
+		return distance(rgb, rgbOf(gray)) < distance(rgb, rgbOf(cube)) ? gray : cube;
+	}
+
+	private static int cubeStep(int value) {
+		return value < 48 ? 0 : value < 115 ? 1 : (value - 35) / 40;
+	}
+
+	private static int nearestAnsi(int rgb) {
+		int best = 0;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < ANSI_RGB.length; i++) {
+			int distance = distance(rgb, ANSI_RGB[i]);
+			if (distance < bestDistance) {
+				best = i;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Squared distance, weighted for the eye's sensitivity per channel.
+	 */
+	private static int distance(int a, int b) {
+		int red = (a >> 16 & 0xFF) - (b >> 16 & 0xFF);
+		int green = (a >> 8 & 0xFF) - (b >> 8 & 0xFF);
+		int blue = (a & 0xFF) - (b & 0xFF);
+		return 2 * red * red + 4 * green * green + 3 * blue * blue;
+	}
+
+	private static final class Tables {
+
+		static final byte[] TO_INDEXED = new byte[1 << 15];
+		static final byte[] TO_ANSI = new byte[1 << 15];
+
+		static {
+			for (int key = 0; key < TO_INDEXED.length; key++) {
+				// center of the quantization bucket
+				int rgb = ((key >> 10) << 3 | 4) << 16 | ((key >> 5 & 0x1F) << 3 | 4) << 8 | (key & 0x1F) << 3 | 4;
+				TO_INDEXED[key] = (byte) nearestIndexed(rgb);
+				TO_ANSI[key] = (byte) nearestAnsi(rgb);
+			}
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable byte buffer collecting the output of one frame.
+ *
+ * <p>
+ * Text and escape sequences are encoded straight into a heap
+ * {@link ByteBuffer}, which is written to the terminal's output stream with a
+ * single call per frame. ASCII is copied byte by byte, other characters are
+ * encoded as UTF-8 by hand, or with the terminal's charset if that is not
+ * UTF-8. The buffer grows as needed and is kept for the next frame.
+ * </p>
+ *
+ * <p>
+ * A few bytes of headroom are kept in front of the frame, so it can be
+ * wrapped in a prefix and suffix and still be written in one call.
+ * </p>
+ *
+ * <p>
+ * If an {@link OutputFanOut} has subscribers, every written frame is
+ * published to them as is. A frame they accepted keeps the array, and the
+ * buffer continues in a recycled one.
+ * </p>
+ */
+final class FrameBuffer {
+
+	private static final int HEADROOM = 16;
+
+	private final Charset charset;
+	private final boolean utf8;
+	private final OutputFanOut fanOut;
+	private ByteBuffer buffer;
+	private char pendingHighSurrogate;
+
+	FrameBuffer(int capacity, Charset charset) {
+		this(capacity, charset, null);
+	}
+
+	FrameBuffer(int capacity, Charset charset, OutputFanOut fanOut) {
+		this.buffer = ByteBuffer.allocate(HEADROOM + capacity);
+		this.buffer.position(HEADROOM);
+		this.charset = charset == null ? StandardCharsets.UTF_8 : charset;
+		this.utf8 = StandardCharsets.UTF_8.equals(this.charset);
+		this.fanOut = fanOut;
+	}
+
+	int length() {
+		return buffer.position() - HEADROOM;
+	}
+
+	void append(byte[] bytes) {
+		ensure(bytes.length);
+		buffer.put(bytes);
+	}
+
+	void appendAscii(char c) {
+		ensure(1);
+		buffer.put((byte) c);
+	}
+
+	/**
+	 * Appends the decimal digits of a non-negative number.
+	 */
+	void appendDecimal(int value) {
+		ensure(10);
+		if (value < 10) {
+			buffer.put((byte) ('0' + value));
+			return;
+		}
+		int start = buffer.position();
+		do {
+			buffer.put((byte) ('0' + value % 10));
+			value /= 10;
+		} while (value > 0);
+		// digits were written least significant first
+		byte[] array = buffer.array();
+		for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+			byte swap = array[i];
+			array[i] = array[j];
+			array[j] = swap;
+		}
+	}
+
+	void append(char c) {
+		if (c < 0x80 && pendingHighSurrogate == 0) {
+			ensure(1);
+			buffer.put((byte) c);
+		} else {
+			encode(c);
+		}
+	}
+
+	void append(CharSequence text) {
+		int length = text.length();
+		ensure(length);
+		int i = 0;
+		if (pendingHighSurrogate == 0) {
+			// fast path: ASCII runs are copied without any encoding
+			for (; i < length; i++) {
+				char c = text.charAt(i);
+				if (c >= 0x80) {
+					break;
+				}
+				buffer.put((byte) c);
+			}
+		}
+		for (; i < length; i++) {
+			encode(text.charAt(i));
+		}
+	}
+
+	/**
+	 * Writes the collected bytes to {@code out} in one call and clears the
+	 * buffer. The stream is not flushed.
+	 */
+	void writeTo(OutputStream out) throws IOException {
+		if (length() > 0) {
+			out.write(buffer.array(), HEADROOM, length());
+			written(HEADROOM);
+		}
+	}
+
+	/**
+	 * Writes the collected bytes enclosed in {@code prefix} and {@code suffix}
+	 * to {@code out} in one call and clears the buffer. The prefix must fit
+	 * into the headroom.
+	 */
+	void writeTo(OutputStream out, byte[] prefix, byte[] suffix) throws IOException {
+		if (length() > 0) {
+			append(suffix);
+			int start = HEADROOM - prefix.length;
+			System.arraycopy(prefix, 0, buffer.array(), start, prefix.length);
+			out.write(buffer.array(), start, buffer.position() - start);
+			written(start);
+		}
+	}
+
+	/**
+	 * Publishes the frame written from {@code start} and clears the buffer.
+	 */
+	private void written(int start) {
+		if (fanOut != null && fanOut.hasSubscribers()
+				&& fanOut.publish(buffer.array(), start, buffer.position() - start)) {
+			buffer = ByteBuffer.wrap(fanOut.array(buffer.capacity()));
+		}
+		buffer.position(HEADROOM);
+	}
+
+	private void encode(char c) {
+		if (Character.isHighSurrogate(c)) {
+			pendingHighSurrogate = c;
+			return;
+		}
+		int codePoint = c;
+		if (pendingHighSurrogate != 0) {
+			char high = pendingHighSurrogate;
+			pendingHighSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				codePoint = Character.toCodePoint(high, c);
+			} else {
+				encode('?');
+			}
+		} else if (Character.isLowSurrogate(c)) {
+			codePoint = '?';
+		}
+		appendCodePoint(codePoint);
+	}
+
+	/**
+	 * Appends a single code point, which must not be a surrogate.
+	 */
+	void appendCodePoint(int codePoint) {
+		if (!utf8) {
+			append(new String(Character.toChars(codePoint)).getBytes(charset));
+			return;
+		}
+		ensure(4);
+		if (codePoint < 0x80) {
+			buffer.put((byte) codePoint);
+		} else if (codePoint < 0x800) {
+			buffer.put((byte) (0xC0 | codePoint >> 6));
+			buffer.put((byte) (0x80 | codePoint & 0x3F));
+		} else if (codePoint < 0x10000) {
+			buffer.put((byte) (0xE0 | codePoint >> 12));
+			buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+			buffer.put((byte) (0x80 | codePoint & 0x3F));
+		} else {
+			buffer.put((byte) (0xF0 | codePoint >> 18));
+			buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+			buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+			buffer.put((byte) (0x80 | codePoint & 0x3F));
+		}
+	}
+
+	private void ensure(int additional) {
+		if (buffer.remaining() < additional) {
+			int capacity = Math.max(buffer.capacity() * 2, buffer.position() + additional);
+			ByteBuffer grown = ByteBuffer.allocate(capacity);
+			grown.put(buffer.array(), 0, buffer.position());
+			buffer = grown;
+		}
+	}
+}
@@ -14,11 +14,23 @@
 package org.eclipse.osgi.technology.console.ui.jline;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
-import org.jline.jansi.Ansi;
 import org.jline.terminal.Attributes;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
@@ -26,8 +38,13 @@ import org.jline.terminal.Terminal.MouseTracking;
 import org.jline.terminal.Terminal.Signal;
 import org.jline.terminal.Terminal.SignalHandler;
 import org.jline.terminal.spi.TerminalProvider;
+import org.jline.utils.Curses;
 import org.jline.utils.InfoCmp.Capability;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.ServiceScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,43 +52,179 @@ import org.slf4j.LoggerFactory;
 import com.googlecode.lanterna.SGR;
 import com.googlecode.lanterna.TerminalPosition;
 import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
 import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.Scrollable;
 import com.googlecode.lanterna.graphics.TextGraphics;
 import com.googlecode.lanterna.input.KeyStroke;
 import com.googlecode.lanterna.input.KeyType;
-import com.googlecode.lanterna.input.MouseAction;
-import com.googlecode.lanterna.input.MouseActionType;
 import com.googlecode.lanterna.terminal.AbstractTerminal;
 import com.googlecode.lanterna.terminal.TerminalResizeListener;
 
 @Component(scope = ServiceScope.SINGLETON, service = com.googlecode.lanterna.terminal.Terminal.class)
-public class JlineAdapterTerminal extends AbstractTerminal {
+public class JlineAdapterTerminal extends AbstractTerminal implements Scrollable {
 
 	private static final Logger logger = LoggerFactory.getLogger(JlineAdapterTerminal.class);
 
-	private Terminal terminal;
+	/**
+	 * Component property: number of buffered bytes after which a frame is
+	 * written to the terminal before {@link #flush()} is called. {@code 0}
+	 * (default) writes only on {@link #flush()}.
+	 */
+	public static final String AUTO_FLUSH_THRESHOLD = "autoFlushThreshold";
+
+	/**
+	 * Component property: how bracketed pastes are reported. {@code keys}
+	 * (default) delivers the pasted text as one batch of character keystrokes,
+	 * {@code event} as a single {@link PasteKeyStroke}.
+	 */
+	public static final String PASTE_MODE = "pasteMode";
+
+	/**
+	 * Component property: milliseconds to wait after the last SIGWINCH before
+	 * resize listeners are notified, default {@value #DEFAULT_RESIZE_DEBOUNCE}.
+	 * {@code 0} notifies on every signal.
+	 */
+	public static final String RESIZE_DEBOUNCE = "resizeDebounce";
+
+	private static final int DEFAULT_RESIZE_DEBOUNCE = 50;
+
+	/**
+	 * Component property: whether frames are wrapped in synchronized update
+	 * sequences (DEC private mode 2026). {@code auto} (default) asks the
+	 * terminal once and enables them if it reports support, {@code on} and
+	 * {@code off} skip the query.
+	 */
+	public static final String SYNCHRONIZED_OUTPUT = "synchronizedOutput";
+
+	/**
+	 * Component property: the colors the terminal renders. {@code auto}
+	 * (default) detects them from {@code COLORTERM} and terminfo,
+	 * {@code truecolor}, {@code 256} and {@code 16} override the detection.
+	 * Colors beyond them are mapped to the nearest available one.
+	 */
+	public static final String COLORS = "colors";
+
+	private static final int SYNCHRONIZED_OUTPUT_MODE = 2026;
+	private static final byte[] SYNC_BEGIN = AnsiSequences.bytes("\u001B[?2026h");
+	private static final byte[] SYNC_END = AnsiSequences.bytes("\u001B[?2026l");
+	private static final String SYNC_QUERY = "\u001B[?2026$p";
+
+	private static final SGR[] SGRS = SGR.values();
+
+	private static final String BRACKETED_PASTE_ON = "\u001B[?2004h";
+	private static final String BRACKETED_PASTE_OFF = "\u001B[?2004l";
+
+	private final Terminal terminal;
 	private final PrintWriter writer;
+	private final OutputStream output;
+	private FrameBuffer frame;
+	private final int autoFlushThreshold;
+	private final boolean pasteEvents;
+	private final int resizeDebounce;
+	private final AdapterMetrics metrics = new AdapterMetrics();
+	private final OutputFanOut observers = new OutputFanOut();
+	private final String synchronizedOutputSetting;
+	private volatile boolean synchronizedOutput;
+	private boolean synchronizedOutputQueried;
+	private ServiceRegistration<TerminalMetrics> metricsRegistration;
+	private final TerminalCapabilities capabilities;
+	private final AnsiSequences sequences;
+	private final byte[] defaultForeground;
+	private final byte[] defaultBackground;
+	private byte[] cursorVisible;
+	private byte[] cursorInvisible;
 	private final CopyOnWriteArrayList<TerminalResizeListener> resizeListeners;
-	private TerminalPosition cursorPosition;
+
+	// Size as of the last SIGWINCH; listeners are notified on the dispatcher
+	private volatile TerminalSize terminalSize;
+	private TerminalSize notifiedSize;
+	private final ScheduledExecutorService resizeDispatcher;
+	private ScheduledFuture<?> pendingResize;
+	private int cursorColumn;
+	private int cursorRow;
+	private char pendingHighSurrogate;
+
+	// What the terminal currently shows, so redundant sequences can be elided.
+	// Colors are tracked by their sequence, so colors that the terminal shows
+	// alike are not switched. A null color or an unknown cursor means the state
+	// must be re-established.
+	private boolean cursorKnown;
+	private volatile int columns;
+	private byte[] currentForeground;
+	private byte[] currentBackground;
+	private final EnumSet<SGR> activeSGRs = EnumSet.noneOf(SGR.class);
+	private boolean sgrKnown;
 	private Attributes originalAttributes;
+
+	// Keystrokes decoded by the input thread; readers park until it unparks them
+	private final ConcurrentLinkedQueue<KeyStroke> inputQueue = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<Thread> inputWaiters = new ConcurrentLinkedQueue<>();
+	private final CopyOnWriteArrayList<Runnable> inputListeners = new CopyOnWriteArrayList<>();
+	private volatile Thread inputThread;
+	private volatile boolean closed;
+
+	private static final long ESCAPE_TIMEOUT = 50L;
+	private static final int INPUT_BUFFER_SIZE = 4096;
 	private MouseTracking currentMouseTracking;
 
 	public JlineAdapterTerminal() throws IOException {
-		ClassLoader cl = Thread.currentThread().getContextClassLoader();
-		Thread.currentThread().setContextClassLoader(TerminalProvider.class.getClassLoader());
-		try {
-			terminal = TerminalBuilder.builder().system(true).dumb(false).jansi(true)
-					// .exec(true).jna(true).jni(true)
-					.ffm(true).build();
-		} catch (IOException e) {
-			logger.error("Failed to build terminal", e);
-		}
-		Thread.currentThread().setContextClassLoader(cl);
+		this(Map.of());
+	}
+
+	public JlineAdapterTerminal(Map<String, Object> properties) throws IOException {
+		this((BundleContext) null, properties);
+	}
+
+	/**
+	 * Creates the terminal on the system console and, if a bundle context is
+	 * given, registers its {@link TerminalMetrics} as a service.
+	 */
+	@Activate
+	public JlineAdapterTerminal(BundleContext context, Map<String, Object> properties) throws IOException {
+		this(context, systemTerminal(), properties);
+	}
+
+	/**
+	 * Creates an adapter for an existing JLine terminal, for example one over
+	 * piped streams. Closing the adapter closes that terminal.
+	 */
+	public JlineAdapterTerminal(Terminal terminal, Map<String, Object> properties) throws IOException {
+		this(null, terminal, properties);
+	}
+
+	private JlineAdapterTerminal(BundleContext context, Terminal terminal, Map<String, Object> properties)
+			throws IOException {
+		this.terminal = terminal;
+		this.autoFlushThreshold = intProperty(properties, AUTO_FLUSH_THRESHOLD, 0);
+		this.pasteEvents = "event".equals(properties.get(PASTE_MODE));
+		this.resizeDebounce = intProperty(properties, RESIZE_DEBOUNCE, DEFAULT_RESIZE_DEBOUNCE);
+		Object sync = properties.get(SYNCHRONIZED_OUTPUT);
+		this.synchronizedOutputSetting = sync == null ? "auto" : sync.toString().trim();
+		this.synchronizedOutput = "on".equals(synchronizedOutputSetting);
+		Object colors = properties.get(COLORS);
+		this.capabilities = TerminalCapabilities.probe(terminal, colors == null ? "auto" : colors.toString().trim(),
+				System::getenv);
+		this.sequences = new AnsiSequences(capabilities.colors());
+		this.defaultForeground = sequences.foreground(TextColor.ANSI.DEFAULT);
+		this.defaultBackground = sequences.background(TextColor.ANSI.DEFAULT);
+		logger.debug("Terminal capabilities: {}", capabilities);
 
 		this.writer = terminal.writer();
+		this.output = terminal.output();
+		this.frame = new FrameBuffer(16 * 1024, terminal.encoding(), observers);
+		this.cursorVisible = capability(Capability.cursor_visible);
+		this.cursorInvisible = capability(Capability.cursor_invisible);
 		this.originalAttributes = terminal.getAttributes();
 		this.resizeListeners = new CopyOnWriteArrayList<>();
-		this.cursorPosition = new TerminalPosition(0, 0);
+		this.terminalSize = querySize();
+		this.notifiedSize = terminalSize;
+		this.columns = terminalSize.getColumns();
+		this.resizeDispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "JlineAdapterTerminal-resize");
+			thread.setDaemon(true);
+			return thread;
+		});
 
 		logger.debug("JlineAdapterTerminal initialized");
 
@@ -80,340 +233,314 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 			@Override
 			public void handle(Signal signal) {
 				logger.debug("SIGWINCH received - terminal resized");
-				try {
-					TerminalSize newSize = getTerminalSize();
-					logger.debug("New size: {}x{}", newSize.getColumns(), newSize.getRows());
-					// Notify all resize listeners
-					for (TerminalResizeListener listener : resizeListeners) {
-						listener.onResized(JlineAdapterTerminal.this, newSize);
-					}
-				} catch (IOException e) {
-					logger.debug("Error getting terminal size: {}", e.getMessage());
-				}
+				TerminalSize newSize = querySize();
+				terminalSize = newSize;
+				columns = newSize.getColumns();
+				logger.debug("New size: {}x{}", newSize.getColumns(), newSize.getRows());
+				scheduleResize();
 			}
 		});
 		logger.debug("Resize signal handler registered");
-	}
 
-
-	private int pollInputCallCount = 0;
-	private long lastProcessInputTime = 0;
-	private int pollInputPerProcessInput = 0;
-
-	@Override
-	public KeyStroke pollInput() throws IOException {
-		pollInputCallCount++;
-		pollInputPerProcessInput++;
-
-		// Track how many pollInput calls happen per processInput cycle
-		long now = System.currentTimeMillis();
-		if (now - lastProcessInputTime > 100) {
-			// New processInput() cycle
-			if (pollInputPerProcessInput > 1) {
-				logger.trace("pollInput() called {} times in last processInput cycle", pollInputPerProcessInput);
-			}
-			pollInputPerProcessInput = 0;
-			lastProcessInputTime = now;
+		if (context != null) {
+			metricsRegistration = context.registerService(TerminalMetrics.class, metrics, null);
 		}
+	}
 
-		// Log every 100th call to reduce spam
-		if (pollInputCallCount % 100 == 0) {
-			logger.trace("pollInput() called {} times total", pollInputCallCount);
+	private static Terminal systemTerminal() throws IOException {
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		Thread.currentThread().setContextClassLoader(TerminalProvider.class.getClassLoader());
+		try {
+			return TerminalBuilder.builder().system(true).dumb(false).jansi(true)
+					// .exec(true).jna(true).jni(true)
+					.ffm(true).build();
+		} catch (IOException e) {
+			logger.error("Failed to build terminal", e);
+			throw e;
+		} finally {
+			Thread.currentThread().setContextClassLoader(cl);
 		}
+	}
 
-		// CRITICAL: Use timeout > 0 for non-blocking behavior!
-		// JLine's NonBlockingReaderImpl has special handling:
-		// - timeout <= 0: does blocking in.read() on caller thread
-		// - timeout > 0: uses separate thread for non-blocking read
-		// Even 1ms timeout is enough to trigger the non-blocking path.
-		int ch = terminal.reader().read(1L);
+	/**
+	 * Returns the counters of this terminal's input and output paths.
+	 */
+	public TerminalMetrics getMetrics() {
+		return metrics;
+	}
 
-		if (ch == -2) {
-			// Timeout (no input available)
-			return null;
-		}
+	/**
+	 * Subscribes an observer, for example to mirror the session, to the frames
+	 * written from now on. Each frame is shared with all subscribers without
+	 * copying it. A subscriber whose queue of {@code capacity} frames is full
+	 * misses frames rather than holding up the terminal. Output that bypasses
+	 * the frames, like the switch to the alternate screen, is not included.
+	 */
+	public OutputSubscription subscribe(int capacity) {
+		return observers.subscribe(capacity);
+	}
 
-		if (ch == -1) {
-			logger.debug("pollInput() -> EOF");
-			return new KeyStroke(KeyType.EOF);
+	/**
+	 * Closes the terminal unless its user already did, so the input thread and
+	 * the resize dispatcher do not outlive the component.
+	 */
+	@Deactivate
+	void deactivate() {
+		if (closed) {
+			return;
+		}
+		try {
+			close();
+		} catch (IOException e) {
+			logger.debug("Error closing terminal: {}", e.getMessage());
 		}
-
-		// We got input! Parse it
-		logger.trace("pollInput() -> got char: {} (0x{})", ch, Integer.toHexString(ch));
-		return parseInput(ch);
 	}
 
-	@Override
-	public KeyStroke readInput() throws IOException {
-		logger.debug("readInput() called (blocking mode)");
-		// This is called when gui.setBlockingIO(true) is set
-		// We use blocking read here since the caller expects to wait for input
-		int ch = terminal.reader().read();
-
-		if (ch == -1) {
-			logger.debug("-> EOF");
-			return null;
+	private synchronized void unregisterMetrics() {
+		if (metricsRegistration != null) {
+			try {
+				metricsRegistration.unregister();
+			} catch (IllegalStateException e) {
+				// already unregistered with the bundle
+			}
+			metricsRegistration = null;
 		}
-
-		logger.trace("read char: {} (0x{})", ch, Integer.toHexString(ch));
-		return parseInput(ch);
 	}
 
+
 	/**
-	 * Parse a character code into a KeyStroke
+	 * Resolves a parameterless terminfo capability once, so it can be appended
+	 * to the frame like any other sequence.
 	 */
-	private KeyStroke parseInput(int ch) throws IOException {
-
-		// Handle special keys
-		if (ch == 27) { // ESC sequence
-			logger.trace("ESC sequence detected");
-
-			// Use read with timeout to get the next byte of the escape sequence
-			// 50ms timeout is enough for complete sequences but not too long for standalone
-			// ESC
-			int next = terminal.reader().read(50L);
+	private byte[] capability(Capability capability) {
+		String value = terminal.getStringCapability(capability);
+		return value == null ? new byte[0] : Curses.tputs(value).getBytes(terminal.encoding());
+	}
 
-			if (next == -2 || next == -1) {
-				// Timeout or EOF - it's a standalone ESC key
-				logger.trace("-> Standalone Escape key (timeout/EOF)");
-				return new KeyStroke(KeyType.Escape);
+	private static int intProperty(Map<String, Object> properties, String key, int defaultValue) {
+		Object value = properties.get(key);
+		if (value instanceof Number number) {
+			return number.intValue();
+		}
+		if (value != null) {
+			try {
+				return Integer.parseInt(value.toString().trim());
+			} catch (NumberFormatException e) {
+				logger.warn("Invalid value for {}: {}", key, value);
 			}
+		}
+		return defaultValue;
+	}
 
-			logger.trace("ESC next: {} (0x{})", next, Integer.toHexString(next));
+	@Override
+	public KeyStroke pollInput() throws IOException {
+		metrics.polled();
+		startInputThread();
+		return nextInput();
+	}
 
-			if (next == '[') {
-				int code = terminal.reader().read(50L);
-				if (code == -2 || code == -1) {
-					logger.trace("-> Incomplete CSI sequence");
-					return null;
-				}
-				logger.trace("CSI code: {} (0x{})", code, Integer.toHexString(code));
-
-				// Handle standard cursor keys
-				switch (code) {
-				case 'A':
-					logger.trace("-> ArrowUp");
-					return new KeyStroke(KeyType.ArrowUp);
-				case 'B':
-					logger.trace("-> ArrowDown");
-					return new KeyStroke(KeyType.ArrowDown);
-				case 'C':
-					logger.trace("-> ArrowRight");
-					return new KeyStroke(KeyType.ArrowRight);
-				case 'D':
-					logger.trace("-> ArrowLeft");
-					return new KeyStroke(KeyType.ArrowLeft);
-				case 'H':
-					logger.trace("-> Home");
-					return new KeyStroke(KeyType.Home);
-				case 'F':
-					logger.trace("-> End");
-					return new KeyStroke(KeyType.End);
-				default:
-					// Check for SGR mouse events: ESC[<Cb;Cx;Cy(M|m)
-					if (code == '<') {
-						logger.trace("SGR Mouse event detected");
-						return parseMouseEvent();
-					}
+	@Override
+	public KeyStroke readInput() throws IOException {
+		startInputThread();
+		KeyStroke key = nextInput();
+		if (key != null) {
+			return key;
+		}
 
-					// For other sequences (like F-keys etc), consume until letter
-					if (Character.isDigit(code) || code == ';' || code == '?') {
-						logger.trace("CSI with params, consuming...");
-						StringBuilder seq = new StringBuilder();
-						seq.append((char) code);
-						// CSI sequence with parameters - read until letter
-						while (true) {
-							int c = terminal.reader().read(50L);
-							if (c == -2 || c == -1) {
-								// Timeout or EOF - sequence incomplete
-								logger.trace("Incomplete sequence: ESC[{}", seq);
-								break;
-							}
-							seq.append((char) c);
-							if (Character.isLetter(c) || c == '~') {
-								logger.trace("Consumed sequence: ESC[{}", seq);
-								break; // Sequence complete
-							}
-						}
-					} else {
-						logger.trace("Unknown CSI code: {}", (char) code);
-					}
-					// Sequence consumed, return null (no keystroke)
-					logger.trace("Sequence consumed, returning null");
-					return null;
-				}
-			} else if (next == 'O') {
-				// SS3 sequences (some terminals use ESC O for function keys)
-				int code = terminal.reader().read(50L);
-				if (code == -2 || code == -1) {
-					logger.trace("-> Incomplete SS3 sequence");
-					return null;
+		Thread current = Thread.currentThread();
+		inputWaiters.add(current);
+		try {
+			// re-check after registering, the input thread may have published
+			// in between and will not unpark us for that keystroke
+			while ((key = nextInput()) == null) {
+				if (closed) {
+					return KeyDecoder.key(KeyType.EOF);
 				}
-				logger.trace("SS3 code: {} (0x{})", code, Integer.toHexString(code));
-				switch (code) {
-				case 'P':
-					logger.trace("-> F1");
-					return new KeyStroke(KeyType.F1);
-				case 'Q':
-					logger.trace("-> F2");
-					return new KeyStroke(KeyType.F2);
-				case 'R':
-					logger.trace("-> F3");
-					return new KeyStroke(KeyType.F3);
-				case 'S':
-					logger.trace("-> F4");
-					return new KeyStroke(KeyType.F4);
-				default:
-					logger.trace("Unknown SS3, ignoring");
+				LockSupport.park(this);
+				if (current.isInterrupted()) {
+					logger.debug("readInput() interrupted");
 					return null;
 				}
-			} else {
-				// Unknown escape sequence, just consume it
-				logger.trace("Unknown ESC sequence, ignoring");
-				return null;
 			}
+			return key;
+		} finally {
+			inputWaiters.remove(current);
 		}
+	}
 
-		// Handle control characters
-		if (ch < 32) {
-			switch (ch) {
-			case 10: // Line feed (LF)
-			case 13: // Carriage return (CR)
-				logger.trace("-> Enter");
-				return new KeyStroke(KeyType.Enter);
-			case 8:
-			case 127:
-				logger.trace("-> Backspace");
-				return new KeyStroke(KeyType.Backspace);
-			case 9:
-				logger.trace("-> Tab");
-				return new KeyStroke(KeyType.Tab);
-			default:
-				logger.trace("-> Ctrl+{}", (char) (ch + 64));
-				return new KeyStroke((char) ch, true, false, false);
+	/**
+	 * Takes the next keystroke from the queue. Mouse events that only restate a
+	 * newer queued one are skipped, so a slow reader sees one drag or scroll
+	 * event for a run that arrived in several chunks ({@link #publish(List)}
+	 * only merges within a chunk).
+	 */
+	private KeyStroke nextInput() {
+		// only readers take from the queue, so under the lock the peeked key is
+		// the one polled next
+		synchronized (inputQueue) {
+			KeyStroke key = inputQueue.poll();
+			KeyStroke next;
+			while (key != null && (next = inputQueue.peek()) != null && KeyDecoder.mergeable(key, next)) {
+				key = inputQueue.poll();
 			}
+			return key;
 		}
-
-		logger.trace("-> Character: '{}'", (char) ch);
-		return new KeyStroke((char) ch, false, false, false);
 	}
 
 	/**
-	 * Parse SGR mouse event: ESC[<Cb;Cx;Cy(M|m)
-	 * Cb = button code
-	 * Cx = column (1-based)
-	 * Cy = row (1-based)
-	 * M = button press/motion, m = button release
+	 * Registers a callback that is invoked on the input thread whenever new
+	 * input was decoded. It allows event loops to wake up instead of polling
+	 * {@link #pollInput()} on a timer. Callbacks must not block. Starts the
+	 * input thread if it is not running yet.
 	 */
-	private KeyStroke parseMouseEvent() throws IOException {
-		StringBuilder params = new StringBuilder();
-
-		// Read until we get M or m
-		while (true) {
-			int c = terminal.reader().read(50L);
-			if (c == -2 || c == -1) {
-				logger.trace("Incomplete mouse sequence");
-				return null;
-			}
-
-			if (c == 'M' || c == 'm') {
-				// Parse the parameters
-				String[] parts = params.toString().split(";");
-				if (parts.length != 3) {
-					logger.trace("Invalid mouse sequence params: {}", params);
-					return null;
-				}
-
-				try {
-					int buttonCode = Integer.parseInt(parts[0]);
-					int column = Integer.parseInt(parts[1]) - 1; // Convert to 0-based
-					int row = Integer.parseInt(parts[2]) - 1; // Convert to 0-based
-					boolean release = (c == 'm');
-
-					MouseActionType actionType = determineMouseActionType(buttonCode, release);
-					int button = determineButton(buttonCode);
-
-					logger.trace("Mouse event: button={}, x={}, y={}, action={}",
-						button, column, row, actionType);
-
-					return new MouseAction(
-						actionType,
-						button,
-						new TerminalPosition(column, row)
-					);
+	public void addInputListener(Runnable listener) {
+		inputListeners.add(listener);
+		startInputThread();
+	}
 
-				} catch (NumberFormatException e) {
-					logger.trace("Error parsing mouse params: {}", e.getMessage());
-					return null;
-				}
-			} else {
-				params.append((char) c);
-			}
-		}
+	public void removeInputListener(Runnable listener) {
+		inputListeners.remove(listener);
 	}
 
 	/**
-	 * Determine MouseActionType from button code and release flag
+	 * Asks the terminal once whether it supports synchronized output (DECRQM
+	 * for mode 2026). The reply is picked up asynchronously by the input
+	 * decoder; until it arrives, and forever if the terminal does not answer,
+	 * frames are written unwrapped.
 	 */
-	private MouseActionType determineMouseActionType(int buttonCode, boolean release) {
-		// Button codes:
-		// 0-2: left, middle, right button
-		// 32: mouse move with no button
-		// 64: scroll up
-		// 65: scroll down
-		// Add 32 for drag events (button held while moving)
-
-		if (release) {
-			return MouseActionType.CLICK_RELEASE;
+	private void querySynchronizedOutput() {
+		if (!"auto".equals(synchronizedOutputSetting) || synchronizedOutputQueried) {
+			return;
 		}
+		synchronizedOutputQueried = true;
+		startInputThread();
+		writer.print(SYNC_QUERY);
+		writer.flush();
+		logger.debug("Synchronized output query sent");
+	}
 
-		// Check for scroll events
-		if (buttonCode == 64) {
-			return MouseActionType.SCROLL_UP;
-		}
-		if (buttonCode == 65) {
-			return MouseActionType.SCROLL_DOWN;
+	private void modeReported(int mode, int value) {
+		if (mode == SYNCHRONIZED_OUTPUT_MODE) {
+			// 1 = set, 2 = reset; 0 = unknown mode, 3/4 = permanently set/reset
+			synchronizedOutput = value == 1 || value == 2;
+			logger.debug("Synchronized output {}", synchronizedOutput ? "supported" : "not supported");
 		}
+	}
 
-		// Check for drag (button code >= 32 and < 64 indicates drag)
-		if ((buttonCode & 32) != 0 && buttonCode < 64) {
-			return MouseActionType.DRAG;
+	/**
+	 * Starts the input thread on first use. It blocks on the JLine reader, so an
+	 * idle terminal costs no CPU, and decodes input as soon as it arrives.
+	 */
+	private void startInputThread() {
+		if (inputThread != null || closed) {
+			return;
 		}
-
-		// Check for move
-		if (buttonCode == 35 || buttonCode == 32) {
-			return MouseActionType.MOVE;
+		synchronized (inputQueue) {
+			if (inputThread == null) {
+				Thread thread = new Thread(this::readLoop, "JlineAdapterTerminal-input");
+				thread.setDaemon(true);
+				inputThread = thread;
+				thread.start();
+				logger.debug("Input thread started");
+			}
 		}
+	}
 
-		// Default to click down
-		return MouseActionType.CLICK_DOWN;
+	/**
+	 * Reads input in chunks and decodes every complete key of a chunk in one
+	 * pass. Only an incomplete escape sequence at the end of a chunk waits up to
+	 * {@link #ESCAPE_TIMEOUT} ms for the rest; if nothing follows, it is a lone
+	 * ESC (or a truncated sequence).
+	 */
+	private void readLoop() {
+		KeyDecoder decoder = new KeyDecoder(pasteEvents, this::modeReported);
+		List<KeyStroke> batch = new ArrayList<>();
+		Consumer<KeyStroke> sink = batch::add;
+		char[] buffer = new char[INPUT_BUFFER_SIZE];
+		int pending = 0;
+		try {
+			while (!closed) {
+				int read = terminal.reader().readBuffered(buffer, pending, buffer.length - pending,
+						pending > 0 ? ESCAPE_TIMEOUT : 0L);
+				if (read == -1) {
+					logger.debug("Input thread -> EOF");
+					publish(KeyDecoder.key(KeyType.EOF));
+					return;
+				}
+				if (read <= 0) {
+					// timeout while a sequence was incomplete
+					if (pending > 0) {
+						metrics.escapeTimeout(pending);
+						decoder.timeout(buffer, 0, pending, sink);
+						pending = 0;
+						publish(batch);
+					}
+					continue;
+				}
+				long start = System.nanoTime();
+				int length = pending + read;
+				int consumed = decoder.decode(buffer, 0, length, sink);
+				int keys = publish(batch);
+				metrics.decoded(start, read, keys);
+				pending = length - consumed;
+				if (pending == buffer.length) {
+					logger.debug("Dropping {} undecodable input characters", pending);
+					pending = 0;
+				} else if (pending > 0 && consumed > 0) {
+					System.arraycopy(buffer, consumed, buffer, 0, pending);
+				}
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				logger.debug("Input thread failed: {}", e.getMessage());
+				publish(KeyDecoder.key(KeyType.EOF));
+			}
+		} finally {
+			logger.debug("Input thread stopped");
+		}
 	}
 
 	/**
-	 * Extract button number from button code
+	 * Publishes the keys decoded from one chunk of input, with redundant mouse
+	 * events merged, and wakes up readers once for the whole batch.
 	 */
-	private int determineButton(int buttonCode) {
-		// Remove drag/move flag (bit 5)
-		int btn = buttonCode & ~32;
+	private int publish(List<KeyStroke> batch) {
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		KeyDecoder.coalesce(batch);
+		int keys = batch.size();
+		inputQueue.addAll(batch);
+		batch.clear();
+		wakeUp();
+		return keys;
+	}
 
-		// Button mapping:
-		// 0 = left (button 1)
-		// 1 = middle (button 2)
-		// 2 = right (button 3)
-		// 64/65 = scroll (button 4/5)
+	private void publish(KeyStroke key) {
+		inputQueue.offer(key);
+		wakeUp();
+	}
 
-		if (buttonCode == 64 || buttonCode == 65) {
-			return buttonCode == 64 ? 4 : 5; // Scroll wheel
+	private void wakeUp() {
+		for (Thread waiter : inputWaiters) {
+			LockSupport.unpark(waiter);
+		}
+		for (Runnable listener : inputListeners) {
+			try {
+				listener.run();
+			} catch (RuntimeException e) {
+				logger.debug("Input listener failed: {}", e.getMessage());
+			}
 		}
-
-		return (btn % 3) + 1;
 	}
 
 	@Override
 	public void enterPrivateMode() throws IOException {
 		logger.debug("enterPrivateMode() called");
+		writeFrame();
 		// Switch to alternate screen buffer
 		writer.print("\u001B[?1049h");
+		invalidateState();
 		writer.flush();
 		logger.debug("Alternate screen buffer enabled");
 
@@ -428,6 +555,14 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 		terminal.trackMouse(MouseTracking.Normal);
 		logger.debug("Mouse tracking enabled (Normal - buttons and drags only)");
 
+		// Pastes arrive wrapped in ESC[200~ ... ESC[201~ and are decoded as a whole
+		if (capabilities.bracketedPaste()) {
+			writer.print(BRACKETED_PASTE_ON);
+			writer.flush();
+		}
+
+		querySynchronizedOutput();
+
 		terminal.flush();
 		logger.debug("enterPrivateMode() complete");
 	}
@@ -435,12 +570,16 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 	@Override
 	public void exitPrivateMode() throws IOException {
 		logger.debug("exitPrivateMode() called");
+		writeFrame();
 
 		// Disable mouse tracking FIRST - use explicit escape sequences
 		writer.print("\u001B[?1000l"); // Normal mouse tracking off
 		writer.print("\u001B[?1002l"); // Button event tracking off
 		writer.print("\u001B[?1003l"); // Any event tracking off
 		writer.print("\u001B[?1006l"); // SGR extended mouse mode off
+		if (capabilities.bracketedPaste()) {
+			writer.print(BRACKETED_PASTE_OFF);
+		}
 		writer.flush();
 		logger.debug("Mouse tracking escape sequences sent");
 
@@ -453,6 +592,9 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 
 		// Show cursor
 		setCursorVisible(true);
+		// Both only appended to the frame, emit them before leaving the buffer
+		writeFrame();
+		output.flush();
 
 		// Switch back to main screen buffer - this clears the alternate buffer
 		writer.print("\u001B[?1049l");
@@ -463,6 +605,7 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 		terminal.puts(Capability.clear_screen);
 		terminal.puts(Capability.cursor_home);
 		writer.flush();
+		invalidateState();
 
 		// Restore original terminal attributes - this will exit raw mode
 		if (originalAttributes != null) {
@@ -479,16 +622,65 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 
 	@Override
 	public void clearScreen() throws IOException {
-		writer.print(Ansi.ansi().eraseScreen().cursor(1, 1).toString());
-		writer.flush();
-		cursorPosition = new TerminalPosition(0, 0);
+		append(AnsiSequences.CLEAR_SCREEN);
+		cursorColumn = 0;
+		cursorRow = 0;
+		cursorKnown = true;
+	}
+
+	/**
+	 * Scrolls the rows {@code firstLine} to {@code lastLine} up by
+	 * {@code distance} rows, or down if it is negative, and blanks the rows
+	 * scrolled in. The terminal moves the content itself: a scroll costs one
+	 * sequence, or three if the rows neither span the screen nor reach its
+	 * bottom.
+	 */
+	@Override
+	public void scrollLines(int firstLine, int lastLine, int distance) throws IOException {
+		int rows = terminalSize.getRows();
+		int top = Math.max(0, firstLine);
+		int bottom = Math.min(rows - 1, lastLine);
+		if (distance == 0 || bottom < top) {
+			return;
+		}
+		int lines = Math.min(Math.abs(distance), bottom - top + 1);
+
+		// most terminals blank with the current background, Lanterna expects
+		// the default one
+		if (currentBackground != defaultBackground) {
+			frame.append(defaultBackground);
+			currentBackground = defaultBackground;
+		}
+
+		if (top == 0 && bottom == rows - 1) {
+			// SU / SD, the cursor stays
+			AnsiSequences.relative(frame, lines, distance > 0 ? 'S' : 'T');
+		} else if (bottom == rows - 1) {
+			// DL / IL on the first row shift all rows below it
+			setCursorPosition(0, top);
+			AnsiSequences.relative(frame, lines, distance > 0 ? 'M' : 'L');
+		} else {
+			AnsiSequences.scrollRegion(frame, top, bottom);
+			AnsiSequences.relative(frame, lines, distance > 0 ? 'S' : 'T');
+			frame.append(AnsiSequences.RESET_SCROLL_REGION);
+			cursorColumn = 0;
+			cursorRow = 0;
+			cursorKnown = true;
+		}
+		autoFlush();
 	}
 
 	@Override
 	public void setCursorPosition(int x, int y) throws IOException {
-		writer.print(Ansi.ansi().cursor(y + 1, x + 1).toString());
-		writer.flush();
-		cursorPosition = new TerminalPosition(x, y);
+		if (cursorKnown) {
+			AnsiSequences.move(frame, cursorColumn, cursorRow, x, y);
+		} else {
+			AnsiSequences.cursor(frame, x, y);
+		}
+		autoFlush();
+		cursorColumn = x;
+		cursorRow = y;
+		cursorKnown = true;
 	}
 
 	@Override
@@ -498,152 +690,219 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 
 	@Override
 	public TerminalPosition getCursorPosition() throws IOException {
-		return cursorPosition;
+		return new TerminalPosition(cursorColumn, cursorRow);
 	}
 
 	@Override
 	public void setCursorVisible(boolean visible) throws IOException {
-		if (visible) {
-			terminal.puts(Capability.cursor_visible);
-		} else {
-			terminal.puts(Capability.cursor_invisible);
-		}
-		writer.flush();
+		append(visible ? cursorVisible : cursorInvisible);
 	}
 
 	@Override
 	public void putCharacter(char c) throws IOException {
-		writer.print(c);
-		writer.flush();
-		cursorPosition = new TerminalPosition(cursorPosition.getColumn() + 1, cursorPosition.getRow());
+		append(c);
+		if (Character.isHighSurrogate(c)) {
+			pendingHighSurrogate = c;
+			return;
+		}
+		if (pendingHighSurrogate != 0 && Character.isLowSurrogate(c)) {
+			advance(Character.toCodePoint(pendingHighSurrogate, c));
+		} else {
+			advance(c);
+		}
+		pendingHighSurrogate = 0;
 	}
 
 	@Override
 	public void putString(String string) throws IOException {
-		writer.print(string);
-		writer.flush();
-		cursorPosition = new TerminalPosition(cursorPosition.getColumn() + string.length(), cursorPosition.getRow());
+		append(string);
+		pendingHighSurrogate = 0;
+		for (int i = 0; i < string.length();) {
+			int codePoint = string.codePointAt(i);
+			advance(codePoint);
+			i += Character.charCount(codePoint);
+		}
 	}
 
+	/**
+	 * Moves the tracked cursor by the display width of {@code codePoint}. Control
+	 * characters, and reaching the last column with its pending wrap, make the
+	 * position unknown until the next absolute positioning.
+	 */
+	private void advance(int codePoint) {
+		int width = CharacterWidths.of(codePoint);
+		if (width < 0) {
+			cursorKnown = false;
+			return;
+		}
+		cursorColumn += width;
+		if (cursorColumn >= columns) {
+			cursorKnown = false;
+		}
+	}
+
+	/**
+	 * Returns graphics that write fills and lines as runs, see
+	 * {@link #putRun(int, int, TextCharacter, int)}.
+	 */
 	@Override
 	public TextGraphics newTextGraphics() throws IOException {
-		return super.newTextGraphics();
+		return new RunTextGraphics(this);
+	}
+
+	/**
+	 * Writes {@code count} copies of a single-width character from the given
+	 * position on. A run of blanks is erased with ECH and other runs are
+	 * repeated with REP, if the terminal supports them and the sequence is
+	 * shorter than the characters.
+	 */
+	void putRun(int column, int row, TextCharacter character, int count) throws IOException {
+		applyStyle(character);
+		setCursorPosition(column, row);
+		String text = character.getCharacterString();
+
+		if (count > 1 && capabilities.eraseCharacters() && " ".equals(text)
+				&& character.getModifiers().isEmpty()
+				&& (capabilities.backColorErase() || currentBackground == defaultBackground)) {
+			// ECH leaves the cursor in place
+			AnsiSequences.relative(frame, count, 'X');
+			autoFlush();
+			return;
+		}
+
+		putString(text);
+		int repeat = count - 1;
+		if (repeat == 0) {
+			return;
+		}
+		int codePoint = text.codePointAt(0);
+		int bytes = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : 3;
+		if (capabilities.repeatCharacter() && text.length() == 1 && CharacterWidths.of(codePoint) == 1
+				&& AnsiSequences.relativeCost(repeat) < repeat * bytes) {
+			AnsiSequences.relative(frame, repeat, 'b');
+			autoFlush();
+			cursorColumn += repeat;
+			if (cursorColumn >= columns) {
+				cursorKnown = false;
+			}
+			return;
+		}
+		for (int i = 0; i < repeat; i++) {
+			putString(text);
+		}
+	}
+
+	private void applyStyle(TextCharacter character) throws IOException {
+		int modifiers = 0;
+		for (SGR sgr : character.getModifiers()) {
+			modifiers |= 1 << sgr.ordinal();
+		}
+		applyStyle(character.getForegroundColor(), character.getBackgroundColor(), modifiers);
+	}
+
+	/**
+	 * Switches colors and attributes at once.
+	 *
+	 * @param modifiers the attributes to be active, one bit per
+	 *                  {@link SGR#ordinal()}
+	 */
+	void applyStyle(TextColor foreground, TextColor background, int modifiers) throws IOException {
+		if (!sgrKnown) {
+			resetColorAndSGR();
+		}
+		for (SGR sgr : SGRS) {
+			// switch off first, some attributes share the sequence that ends them
+			if ((modifiers & 1 << sgr.ordinal()) == 0 && activeSGRs.contains(sgr)) {
+				disableSGR(sgr);
+			}
+		}
+		for (SGR sgr : SGRS) {
+			if ((modifiers & 1 << sgr.ordinal()) != 0) {
+				enableSGR(sgr);
+			}
+		}
+		setForegroundColor(foreground);
+		setBackgroundColor(background);
+	}
+
+	/**
+	 * Writes a single code point at the cursor, like {@link #putString(String)}
+	 * without the string.
+	 */
+	void putCodePoint(int codePoint) throws IOException {
+		frame.appendCodePoint(codePoint);
+		autoFlush();
+		pendingHighSurrogate = 0;
+		advance(codePoint);
 	}
 
 	@Override
 	public void enableSGR(SGR sgr) throws IOException {
-		Ansi ansi = Ansi.ansi();
-		switch (sgr) {
-		case BOLD:
-			ansi.bold();
-			break;
-		case REVERSE:
-			ansi.a(Ansi.Attribute.NEGATIVE_ON);
-			break;
-		case UNDERLINE:
-			ansi.a(Ansi.Attribute.UNDERLINE);
-			break;
-		case BLINK:
-			ansi.a(Ansi.Attribute.BLINK_SLOW);
-			break;
-		case ITALIC:
-			ansi.a(Ansi.Attribute.ITALIC);
-			break;
-		default:
-			break;
-		}
-		writer.print(ansi.toString());
-		writer.flush();
+		if (activeSGRs.add(sgr) || !sgrKnown) {
+			append(AnsiSequences.enable(sgr));
+		}
 	}
 
 	@Override
 	public void disableSGR(SGR sgr) throws IOException {
-		Ansi ansi = Ansi.ansi();
-		switch (sgr) {
-		case BOLD:
-			ansi.a(Ansi.Attribute.INTENSITY_BOLD_OFF);
-			break;
-		case REVERSE:
-			ansi.a(Ansi.Attribute.NEGATIVE_OFF);
-			break;
-		case UNDERLINE:
-			ansi.a(Ansi.Attribute.UNDERLINE_OFF);
-			break;
-		case BLINK:
-			ansi.a(Ansi.Attribute.BLINK_OFF);
-			break;
-		case ITALIC:
-			ansi.a(Ansi.Attribute.ITALIC_OFF);
-			break;
-		default:
-			break;
-		}
-		writer.print(ansi.toString());
-		writer.flush();
+		if (activeSGRs.remove(sgr) || !sgrKnown) {
+			append(AnsiSequences.disable(sgr));
+			SGR shared = AnsiSequences.sharedOff(sgr);
+			if (shared != null) {
+				activeSGRs.remove(shared);
+			}
+		}
 	}
 
 	@Override
 	public void resetColorAndSGR() throws IOException {
-		writer.print(Ansi.ansi().reset().toString());
-		writer.flush();
+		if (sgrKnown && activeSGRs.isEmpty() && currentForeground == defaultForeground
+				&& currentBackground == defaultBackground) {
+			return;
+		}
+		append(AnsiSequences.RESET);
+		activeSGRs.clear();
+		sgrKnown = true;
+		currentForeground = defaultForeground;
+		currentBackground = defaultBackground;
 	}
 
 	@Override
 	public void setForegroundColor(TextColor color) throws IOException {
-		Ansi ansi = Ansi.ansi();
-		if (color instanceof TextColor.ANSI) {
-			TextColor.ANSI ansiColor = (TextColor.ANSI) color;
-			if (ansiColor == TextColor.ANSI.BLACK)
-				ansi.fg(Ansi.Color.BLACK);
-			else if (ansiColor == TextColor.ANSI.RED)
-				ansi.fg(Ansi.Color.RED);
-			else if (ansiColor == TextColor.ANSI.GREEN)
-				ansi.fg(Ansi.Color.GREEN);
-			else if (ansiColor == TextColor.ANSI.YELLOW)
-				ansi.fg(Ansi.Color.YELLOW);
-			else if (ansiColor == TextColor.ANSI.BLUE)
-				ansi.fg(Ansi.Color.BLUE);
-			else if (ansiColor == TextColor.ANSI.MAGENTA)
-				ansi.fg(Ansi.Color.MAGENTA);
-			else if (ansiColor == TextColor.ANSI.CYAN)
-				ansi.fg(Ansi.Color.CYAN);
-			else if (ansiColor == TextColor.ANSI.WHITE)
-				ansi.fg(Ansi.Color.WHITE);
-		} else if (color instanceof TextColor.RGB) {
-			TextColor.RGB rgb = (TextColor.RGB) color;
-			ansi.fgRgb(rgb.getRed(), rgb.getGreen(), rgb.getBlue());
-		}
-		writer.print(ansi.toString());
-		writer.flush();
+		if (color == null) {
+			return;
+		}
+		byte[] sequence = sequences.foreground(color);
+		if (sequence != null && sequence != currentForeground) {
+			append(sequence);
+			currentForeground = sequence;
+		}
 	}
 
+
 	@Override
 	public void setBackgroundColor(TextColor color) throws IOException {
-		Ansi ansi = Ansi.ansi();
-		if (color instanceof TextColor.ANSI) {
-			TextColor.ANSI ansiColor = (TextColor.ANSI) color;
-			if (ansiColor == TextColor.ANSI.BLACK)
-				ansi.bg(Ansi.Color.BLACK);
-			else if (ansiColor == TextColor.ANSI.RED)
-				ansi.bg(Ansi.Color.RED);
-			else if (ansiColor == TextColor.ANSI.GREEN)
-				ansi.bg(Ansi.Color.GREEN);
-			else if (ansiColor == TextColor.ANSI.YELLOW)
-				ansi.bg(Ansi.Color.YELLOW);
-			else if (ansiColor == TextColor.ANSI.BLUE)
-				ansi.bg(Ansi.Color.BLUE);
-			else if (ansiColor == TextColor.ANSI.MAGENTA)
-				ansi.bg(Ansi.Color.MAGENTA);
-			else if (ansiColor == TextColor.ANSI.CYAN)
-				ansi.bg(Ansi.Color.CYAN);
-			else if (ansiColor == TextColor.ANSI.WHITE)
-				ansi.bg(Ansi.Color.WHITE);
-		} else if (color instanceof TextColor.RGB) {
-			TextColor.RGB rgb = (TextColor.RGB) color;
-			ansi.bgRgb(rgb.getRed(), rgb.getGreen(), rgb.getBlue());
-		}
-		writer.print(ansi.toString());
-		writer.flush();
+		if (color == null) {
+			return;
+		}
+		byte[] sequence = sequences.background(color);
+		if (sequence != null && sequence != currentBackground) {
+			append(sequence);
+			currentBackground = sequence;
+		}
+	}
+
+
+	/**
+	 * Forgets the tracked terminal state after output that bypassed the frame,
+	 * so the next attribute, color and cursor change is always emitted.
+	 */
+	private void invalidateState() {
+		cursorKnown = false;
+		sgrKnown = false;
+		activeSGRs.clear();
+		currentForeground = null;
+		currentBackground = null;
 	}
 
 	@Override
@@ -656,8 +915,47 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 		resizeListeners.remove(listener);
 	}
 
+	/**
+	 * Notifies the resize listeners once the signals of a resize drag have
+	 * settled. Every signal restarts the delay, and all notifications run on
+	 * the single dispatcher thread.
+	 */
+	private synchronized void scheduleResize() {
+		if (pendingResize != null) {
+			pendingResize.cancel(false);
+		}
+		try {
+			pendingResize = resizeDispatcher.schedule(this::dispatchResize, resizeDebounce, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			logger.debug("Resize after close ignored");
+		}
+	}
+
+	private void dispatchResize() {
+		TerminalSize newSize = terminalSize;
+		if (newSize.equals(notifiedSize)) {
+			return;
+		}
+		notifiedSize = newSize;
+		logger.debug("Notifying resize to {}x{}", newSize.getColumns(), newSize.getRows());
+		for (TerminalResizeListener listener : resizeListeners) {
+			try {
+				listener.onResized(this, newSize);
+			} catch (RuntimeException e) {
+				logger.debug("Resize listener failed: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Returns the size as of the last SIGWINCH, without querying the terminal.
+	 */
 	@Override
 	public TerminalSize getTerminalSize() throws IOException {
+		return terminalSize;
+	}
+
+	private TerminalSize querySize() {
 		org.jline.terminal.Size size = terminal.getSize();
 		// Fallback to reasonable defaults if size is 0x0 (dumb terminal)
 		int columns = size.getColumns() > 0 ? size.getColumns() : 80;
@@ -667,30 +965,98 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 
 	@Override
 	public byte[] enquireTerminal(int timeout, TimeUnit timeoutUnit) throws IOException {
-		// Simple implementation - return basic terminal identification
-		return "JlineAnsiTerminal".getBytes();
+		// the terminal type JLine detected, rather than an answerback that most
+		// terminals leave empty
+		String type = terminal.getType();
+		return (type == null ? Terminal.TYPE_DUMB : type).getBytes(StandardCharsets.US_ASCII);
 	}
 
 	@Override
 	public void bell() throws IOException {
+		writeFrame();
 		terminal.puts(Capability.bell);
 		writer.flush();
 	}
 
+	/**
+	 * Writes the accumulated frame to the terminal in one go. This is the only
+	 * place where frame output reaches the terminal's output stream and is
+	 * flushed.
+	 */
 	@Override
 	public void flush() throws IOException {
-		writer.flush();
+		int bytes = frame.length();
+		if (bytes == 0) {
+			output.flush();
+			return;
+		}
+		long start = System.nanoTime();
+		writeFrame();
+		output.flush();
+		metrics.flushed(start, bytes);
+	}
+
+	/**
+	 * Appends output to the frame buffer. If an auto-flush threshold is
+	 * configured and exceeded, the frame is flushed early so a single frame
+	 * cannot grow without bound.
+	 */
+	private void append(CharSequence text) throws IOException {
+		frame.append(text);
+		autoFlush();
+	}
+
+	private void append(char c) throws IOException {
+		frame.append(c);
+		autoFlush();
+	}
+
+	private void append(byte[] sequence) throws IOException {
+		frame.append(sequence);
+		autoFlush();
+	}
+
+	private void autoFlush() throws IOException {
+		if (autoFlushThreshold > 0 && frame.length() >= autoFlushThreshold) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the frame buffer to the terminal's output stream without flushing
+	 * it. Must be called before anything writes to the terminal through JLine's
+	 * writer, to keep the output in order; that writer is always flushed right
+	 * away, so it never holds output across a frame.
+	 */
+	private void writeFrame() throws IOException {
+		if (synchronizedOutput) {
+			// the terminal renders the whole frame at once, without tearing
+			frame.writeTo(output, SYNC_BEGIN, SYNC_END);
+		} else {
+			frame.writeTo(output);
+		}
 	}
 
 	@Override
 	public void close() throws IOException {
 		logger.debug("close() called");
+		closed = true;
+		unregisterMetrics();
+		observers.close();
+		resizeDispatcher.shutdownNow();
+		for (Thread waiter : inputWaiters) {
+			LockSupport.unpark(waiter);
+		}
 		if (terminal != null) {
+			writeFrame();
 			// Disable mouse tracking FIRST - use explicit escape sequences
 			writer.print("\u001B[?1000l"); // Normal mouse tracking off
 			writer.print("\u001B[?1002l"); // Button event tracking off
 			writer.print("\u001B[?1003l"); // Any event tracking off
 			writer.print("\u001B[?1006l"); // SGR extended mouse mode off
+			if (capabilities.bracketedPaste()) {
+				writer.print(BRACKETED_PASTE_OFF);
+			}
 			writer.flush();
 			terminal.trackMouse(MouseTracking.Off);
 			logger.debug("Mouse tracking disabled");
@@ -722,6 +1088,12 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 
 			terminal.close();
 			logger.debug("Terminal closed");
+
+			// closing the terminal ends the blocking read
+			Thread thread = inputThread;
+			if (thread != null) {
+				thread.interrupt();
+			}
 		}
 		logger.debug("close() complete");
 	}
@@ -731,10 +1103,12 @@ public class JlineAdapterTerminal extends AbstractTerminal {
 	 */
 	public void clearAndResetTerminal() {
 		try {
+			flush();
 			terminal.puts(Capability.clear_screen);
 			terminal.puts(Capability.cursor_home);
 			terminal.puts(Capability.exit_attribute_mode);
 			writer.flush();
+			invalidateState();
 		} catch (Exception e) {
 			logger.debug("Error clearing terminal: {}", e.getMessage());
 		}
@@ -0,0 +1,483 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.input.MouseAction;
+import com.googlecode.lanterna.input.MouseActionType;
+
+/**
+ * Table-driven decoder turning terminal input into {@link KeyStroke}s.
+ *
+ * <p>
+ * The decoder works on chunks of buffered input and decodes as many complete
+ * keys as the chunk contains. It covers the xterm/VT key set: cursor and
+ * editing keys, F1 to F19, the {@code 1;m} modifier encoding for Shift, Alt
+ * and Ctrl, Alt+key as an ESC prefix, and SGR mouse reports. An incomplete
+ * sequence at the end of a chunk is left for the next chunk. Only if no more
+ * input follows within the escape timeout is it resolved by
+ * {@link #timeout(char[], int, int, Consumer)}, which turns a lone ESC into
+ * the Escape key.
+ * </p>
+ *
+ * <p>
+ * Bracketed pastes ({@code ESC [ 200 ~ ... ESC [ 201 ~}) are collected across
+ * chunks and delivered once complete, either as one {@link PasteKeyStroke} or
+ * as consecutive character keys.
+ * </p>
+ *
+ * <p>
+ * Keys without modifiers and printable ASCII characters are shared flyweight
+ * instances, so typing and cursor movement do not allocate. Their
+ * {@link KeyStroke#getEventTime() event time} is therefore not meaningful.
+ * </p>
+ */
+final class KeyDecoder {
+
+	private static final Logger logger = LoggerFactory.getLogger(KeyDecoder.class);
+
+	private static final char ESC = 0x1B;
+	private static final int MAX_PARAMETERS = 8;
+	private static final int MAX_SEQUENCE = 64;
+
+	// CSI <letter> and SS3 <letter>, indexed by the final character
+	private static final KeyType[] LETTER_KEYS = new KeyType[128];
+	// CSI <n> ~, indexed by n
+	private static final KeyType[] TILDE_KEYS = new KeyType[35];
+
+	// flyweights for unmodified keys and plain ASCII characters
+	private static final KeyStroke[] TYPE_KEYS = new KeyStroke[KeyType.values().length];
+	private static final KeyStroke[] ASCII_KEYS = new KeyStroke[128];
+
+	static {
+		LETTER_KEYS['A'] = KeyType.ArrowUp;
+		LETTER_KEYS['B'] = KeyType.ArrowDown;
+		LETTER_KEYS['C'] = KeyType.ArrowRight;
+		LETTER_KEYS['D'] = KeyType.ArrowLeft;
+		LETTER_KEYS['H'] = KeyType.Home;
+		LETTER_KEYS['F'] = KeyType.End;
+		LETTER_KEYS['P'] = KeyType.F1;
+		LETTER_KEYS['Q'] = KeyType.F2;
+		LETTER_KEYS['R'] = KeyType.F3;
+		LETTER_KEYS['S'] = KeyType.F4;
+		LETTER_KEYS['Z'] = KeyType.ReverseTab;
+
+		TILDE_KEYS[1] = KeyType.Home;
+		TILDE_KEYS[2] = KeyType.Insert;
+		TILDE_KEYS[3] = KeyType.Delete;
+		TILDE_KEYS[4] = KeyType.End;
+		TILDE_KEYS[5] = KeyType.PageUp;
+		TILDE_KEYS[6] = KeyType.PageDown;
+		TILDE_KEYS[7] = KeyType.Home;
+		TILDE_KEYS[8] = KeyType.End;
+		TILDE_KEYS[11] = KeyType.F1;
+		TILDE_KEYS[12] = KeyType.F2;
+		TILDE_KEYS[13] = KeyType.F3;
+		TILDE_KEYS[14] = KeyType.F4;
+		TILDE_KEYS[15] = KeyType.F5;
+		TILDE_KEYS[17] = KeyType.F6;
+		TILDE_KEYS[18] = KeyType.F7;
+		TILDE_KEYS[19] = KeyType.F8;
+		TILDE_KEYS[20] = KeyType.F9;
+		TILDE_KEYS[21] = KeyType.F10;
+		TILDE_KEYS[23] = KeyType.F11;
+		TILDE_KEYS[24] = KeyType.F12;
+		TILDE_KEYS[25] = KeyType.F13;
+		TILDE_KEYS[26] = KeyType.F14;
+		TILDE_KEYS[28] = KeyType.F15;
+		TILDE_KEYS[29] = KeyType.F16;
+		TILDE_KEYS[31] = KeyType.F17;
+		TILDE_KEYS[32] = KeyType.F18;
+		TILDE_KEYS[33] = KeyType.F19;
+
+		for (KeyType type : KeyType.values()) {
+			if (type != KeyType.Character && type != KeyType.MouseEvent && type != KeyType.CursorLocation) {
+				TYPE_KEYS[type.ordinal()] = new KeyStroke(type);
+			}
+		}
+		for (char c = ' '; c < 0x7F; c++) {
+			ASCII_KEYS[c] = new KeyStroke(c, false, false);
+		}
+	}
+
+	private static final String PASTE_END = ESC + "[201~";
+
+	private final int[] parameters = new int[MAX_PARAMETERS];
+	private int parameterCount;
+
+	private final boolean pasteEvents;
+	private final ModeReportListener modeReports;
+	private StringBuilder paste;
+
+	/**
+	 * Receives DECRPM reports ({@code CSI ? mode ; value $ y}), the replies to
+	 * DECRQM mode queries.
+	 */
+	interface ModeReportListener {
+		void modeReported(int mode, int value);
+	}
+
+	/**
+	 * @param pasteEvents whether bracketed pastes are delivered as a single
+	 *                    {@link PasteKeyStroke} rather than as character keys
+	 * @param modeReports receives mode reports, may be {@code null}
+	 */
+	KeyDecoder(boolean pasteEvents, ModeReportListener modeReports) {
+		this.pasteEvents = pasteEvents;
+		this.modeReports = modeReports;
+	}
+
+	/**
+	 * Decodes all complete keys in {@code buffer[from, to)}.
+	 *
+	 * @return the index of the first character of a trailing incomplete escape
+	 *         sequence, or {@code to} if everything was consumed
+	 */
+	int decode(char[] buffer, int from, int to, Consumer<KeyStroke> out) {
+		int i = from;
+		while (i < to) {
+			if (paste != null) {
+				i = pasted(buffer, i, to, out);
+				if (paste != null) {
+					return i;
+				}
+				continue;
+			}
+			char c = buffer[i];
+			if (c != ESC) {
+				out.accept(plain(c, false));
+				i++;
+				continue;
+			}
+			int end = escape(buffer, i, to, out);
+			if (end < 0) {
+				return i;
+			}
+			i = end;
+		}
+		return to;
+	}
+
+	/**
+	 * Resolves the incomplete sequence {@code buffer[from, to)} after no further
+	 * input arrived within the escape timeout.
+	 */
+	void timeout(char[] buffer, int from, int to, Consumer<KeyStroke> out) {
+		int length = to - from;
+		if (paste != null) {
+			// not the end marker after all
+			paste.append(buffer, from, length);
+		} else if (length == 1) {
+			out.accept(key(KeyType.Escape));
+		} else if (length == 2) {
+			// ESC [ and ESC O on their own are Alt+[ and Alt+O
+			out.accept(plain(buffer[from + 1], true));
+		} else {
+			logger.trace("Dropping incomplete escape sequence of {} characters", length);
+		}
+	}
+
+	/**
+	 * Decodes the escape sequence starting at {@code buffer[start]}.
+	 *
+	 * @return the index after the sequence, or {@code -1} if it is incomplete
+	 */
+	private int escape(char[] buffer, int start, int to, Consumer<KeyStroke> out) {
+		if (start + 1 >= to) {
+			return -1;
+		}
+		char next = buffer[start + 1];
+		switch (next) {
+		case '[':
+			return csi(buffer, start + 2, to, out);
+		case 'O':
+			if (start + 2 >= to) {
+				return -1;
+			}
+			char code = buffer[start + 2];
+			KeyType type = code < LETTER_KEYS.length ? LETTER_KEYS[code] : null;
+			if (type != null) {
+				out.accept(key(type));
+			} else {
+				logger.trace("Unknown SS3 sequence: {}", code);
+			}
+			return start + 3;
+		case ESC:
+			// a second ESC starts a new sequence, the first one stands alone
+			out.accept(key(KeyType.Escape));
+			return start + 1;
+		default:
+			out.accept(plain(next, true));
+			return start + 2;
+		}
+	}
+
+	/**
+	 * Decodes a control sequence whose parameters start at {@code buffer[start]}.
+	 *
+	 * @return the index after the final character, or {@code -1} if the sequence
+	 *         is incomplete
+	 */
+	private int csi(char[] buffer, int start, int to, Consumer<KeyStroke> out) {
+		parameterCount = 0;
+		int value = 0;
+		boolean hasValue = false;
+		char marker = 0;
+		int i = start;
+		if (i < to && (buffer[i] == '<' || buffer[i] == '?' || buffer[i] == '>')) {
+			marker = buffer[i++];
+		}
+		for (; i < to; i++) {
+			char c = buffer[i];
+			if (c >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+				hasValue = true;
+			} else if (c == ';') {
+				addParameter(hasValue ? value : 1);
+				value = 0;
+				hasValue = false;
+			} else if (c >= 0x40 && c <= 0x7E) {
+				if (hasValue || parameterCount > 0) {
+					addParameter(hasValue ? value : 1);
+				}
+				control(marker, c, out);
+				return i + 1;
+			} else if (c < 0x20 || c > 0x3F) {
+				// not part of a control sequence, resynchronize here
+				logger.trace("Malformed CSI sequence");
+				return i;
+			}
+			if (i - start > MAX_SEQUENCE) {
+				logger.trace("Overlong CSI sequence dropped");
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	private void addParameter(int value) {
+		if (parameterCount < MAX_PARAMETERS) {
+			parameters[parameterCount++] = value;
+		}
+	}
+
+	private void control(char marker, char command, Consumer<KeyStroke> out) {
+		if (marker == '<') {
+			if ((command == 'M' || command == 'm') && parameterCount == 3) {
+				out.accept(mouse(parameters[0], parameters[1] - 1, parameters[2] - 1, command == 'm'));
+			}
+			return;
+		}
+		if (marker == '?' && command == 'y' && parameterCount == 2) {
+			if (modeReports != null) {
+				modeReports.modeReported(parameters[0], parameters[1]);
+			}
+			return;
+		}
+		if (marker != 0) {
+			logger.trace("Ignoring private CSI sequence {}{}", marker, command);
+			return;
+		}
+
+		KeyType type;
+		int modifiers;
+		if (command == '~') {
+			int code = parameterCount > 0 ? parameters[0] : 0;
+			if (code == 200) {
+				paste = new StringBuilder();
+				return;
+			}
+			type = code < TILDE_KEYS.length ? TILDE_KEYS[code] : null;
+			modifiers = parameterCount > 1 ? parameters[1] - 1 : 0;
+		} else {
+			type = command < LETTER_KEYS.length ? LETTER_KEYS[command] : null;
+			modifiers = parameterCount > 1 ? parameters[1] - 1 : 0;
+		}
+		if (type == null) {
+			logger.trace("Unknown CSI sequence ending in {}", command);
+			return;
+		}
+		if (modifiers <= 0) {
+			out.accept(key(type));
+		} else {
+			out.accept(new KeyStroke(type, (modifiers & 4) != 0, (modifiers & 2) != 0, (modifiers & 1) != 0));
+		}
+	}
+
+	/**
+	 * Collects pasted text up to the end marker.
+	 *
+	 * @return the index after the end marker if the paste is complete, otherwise
+	 *         the index of a possibly partial end marker at the end of the chunk
+	 */
+	private int pasted(char[] buffer, int start, int to, Consumer<KeyStroke> out) {
+		for (int i = start; i < to; i++) {
+			if (buffer[i] != ESC) {
+				continue;
+			}
+			int available = Math.min(PASTE_END.length(), to - i);
+			boolean matches = true;
+			for (int k = 1; k < available && matches; k++) {
+				matches = buffer[i + k] == PASTE_END.charAt(k);
+			}
+			if (!matches) {
+				continue;
+			}
+			paste.append(buffer, start, i - start);
+			if (available < PASTE_END.length()) {
+				return i;
+			}
+			deliver(paste, out);
+			paste = null;
+			return i + PASTE_END.length();
+		}
+		paste.append(buffer, start, to - start);
+		return to;
+	}
+
+	private void deliver(StringBuilder text, Consumer<KeyStroke> out) {
+		if (pasteEvents) {
+			out.accept(new PasteKeyStroke(text.toString()));
+			return;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			out.accept(plain(text.charAt(i), false));
+		}
+	}
+
+	/**
+	 * Maps a single character, optionally with Alt held, to a key. Control
+	 * characters become Ctrl+letter as in Lanterna's own terminals.
+	 */
+	private static KeyStroke plain(char c, boolean alt) {
+		if (!alt && c < ASCII_KEYS.length && ASCII_KEYS[c] != null) {
+			return ASCII_KEYS[c];
+		}
+		switch (c) {
+		case '\r':
+		case '\n':
+			return alt ? new KeyStroke(KeyType.Enter, false, true) : key(KeyType.Enter);
+		case '\t':
+			return alt ? new KeyStroke(KeyType.Tab, false, true) : key(KeyType.Tab);
+		case '\b':
+		case 0x7F:
+			return alt ? new KeyStroke(KeyType.Backspace, false, true) : key(KeyType.Backspace);
+		case ESC:
+			return alt ? new KeyStroke(KeyType.Escape, false, true) : key(KeyType.Escape);
+		default:
+			if (c == 0) {
+				return new KeyStroke(' ', true, alt);
+			}
+			if (c < 27) {
+				return new KeyStroke((char) ('a' - 1 + c), true, alt);
+			}
+			if (c < ' ') {
+				return new KeyStroke((char) ('@' + c), true, alt);
+			}
+			return new KeyStroke(c, false, alt);
+		}
+	}
+
+	/**
+	 * Returns the shared instance of the unmodified key {@code type}.
+	 */
+	static KeyStroke key(KeyType type) {
+		return TYPE_KEYS[type.ordinal()];
+	}
+
+	/**
+	 * Merges runs of mouse events that only restate a newer one, in place: of
+	 * consecutive DRAG or MOVE events with the same button only the last
+	 * position is kept, and consecutive scrolls in the same direction collapse
+	 * into one. Clicks, releases and keys are never merged.
+	 */
+	static void coalesce(List<KeyStroke> keys) {
+		int size = keys.size();
+		if (size < 2) {
+			return;
+		}
+		int target = 0;
+		for (int i = 0; i < size; i++) {
+			KeyStroke key = keys.get(i);
+			if (target > 0 && mergeable(keys.get(target - 1), key)) {
+				keys.set(target - 1, key);
+			} else {
+				keys.set(target++, key);
+			}
+		}
+		keys.subList(target, size).clear();
+	}
+
+	/**
+	 * Returns whether {@code next} supersedes {@code previous}, see
+	 * {@link #coalesce(List)}.
+	 */
+	static boolean mergeable(KeyStroke previous, KeyStroke next) {
+		if (!(previous instanceof MouseAction first) || !(next instanceof MouseAction second)
+				|| first.getActionType() != second.getActionType() || first.getButton() != second.getButton()) {
+			return false;
+		}
+		return switch (first.getActionType()) {
+		case DRAG, MOVE, SCROLL_UP, SCROLL_DOWN -> true;
+		default -> false;
+		};
+	}
+
+	/**
+	 * Builds the event of an SGR mouse report {@code ESC [ < b ; x ; y (M|m)}.
+	 */
+	private static MouseAction mouse(int code, int column, int row, boolean release) {
+		return new MouseAction(mouseActionType(code, release), mouseButton(code), new TerminalPosition(column, row));
+	}
+
+	private static MouseActionType mouseActionType(int code, boolean release) {
+		// Button codes, after masking the Shift/Meta/Ctrl bits 4, 8 and 16:
+		// 0-2: left, middle, right button
+		// 64/65: scroll up/down
+		// +32: motion, with the button held (drag) or 3 for no button (move)
+		int base = code & ~0x1C;
+		if (release) {
+			return MouseActionType.CLICK_RELEASE;
+		}
+		if (base == 64) {
+			return MouseActionType.SCROLL_UP;
+		}
+		if (base == 65) {
+			return MouseActionType.SCROLL_DOWN;
+		}
+		if ((base & 32) != 0 && base < 64) {
+			return (base & 3) == 3 ? MouseActionType.MOVE : MouseActionType.DRAG;
+		}
+		return MouseActionType.CLICK_DOWN;
+	}
+
+	private static int mouseButton(int code) {
+		// 0 = left (button 1), 1 = middle (button 2), 2 = right (button 3),
+		// 64/65 = scroll (button 4/5), 3 = none
+		int base = code & ~0x1C;
+		if (base == 64 || base == 65) {
+			return base == 64 ? 4 : 5;
+		}
+		int button = base & 3;
+		return button == 3 ? 0 : button + 1;
+	}
+}
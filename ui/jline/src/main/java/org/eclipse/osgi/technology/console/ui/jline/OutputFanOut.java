@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the frames of a {@link FrameBuffer} to the subscribed observers.
+ *
+ * <p>
+ * A published frame shares the frame buffer's array with all subscribers,
+ * which then writes the next frame into another array. Released arrays are
+ * kept in a small pool, so with observers that keep up only a few arrays
+ * are ever in use. Without subscribers nothing is published and the frame
+ * buffer keeps its array.
+ * </p>
+ */
+final class OutputFanOut {
+
+	private static final int POOL_SIZE = 4;
+
+	private final CopyOnWriteArrayList<OutputSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final ConcurrentLinkedQueue<byte[]> pool = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+	private long sequence;
+
+	OutputSubscription subscribe(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		OutputSubscription subscription = new OutputSubscription(capacity, this);
+		subscriptions.add(subscription);
+		return subscription;
+	}
+
+	void unsubscribe(OutputSubscription subscription) {
+		subscriptions.remove(subscription);
+	}
+
+	boolean hasSubscribers() {
+		return !subscriptions.isEmpty();
+	}
+
+	/**
+	 * Offers the bytes to every subscriber. Returns whether at least one
+	 * accepted them, in which case the array now belongs to the frame and must
+	 * not be written again.
+	 */
+	boolean publish(byte[] array, int offset, int length) {
+		// the publisher holds one reference until every subscriber was offered
+		// the frame, so it cannot be recycled in between
+		OutputFrame frame = new OutputFrame(sequence++, array, offset, length, this);
+		boolean accepted = false;
+		for (OutputSubscription subscription : subscriptions) {
+			frame.retain();
+			if (subscription.offer(frame)) {
+				accepted = true;
+			} else {
+				frame.unretain();
+			}
+		}
+		if (accepted) {
+			frame.release();
+		}
+		return accepted;
+	}
+
+	/**
+	 * Returns a released array of at least {@code capacity} bytes, or a new
+	 * one.
+	 */
+	byte[] array(int capacity) {
+		byte[] array;
+		while ((array = pool.poll()) != null) {
+			pooled.decrementAndGet();
+			if (array.length >= capacity) {
+				return array;
+			}
+		}
+		return new byte[capacity];
+	}
+
+	void recycle(byte[] array) {
+		if (pooled.incrementAndGet() <= POOL_SIZE) {
+			pool.offer(array);
+		} else {
+			pooled.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Closes all subscriptions, for example when the terminal is closed.
+	 */
+	void close() {
+		for (OutputSubscription subscription : subscriptions) {
+			subscription.close();
+		}
+	}
+}
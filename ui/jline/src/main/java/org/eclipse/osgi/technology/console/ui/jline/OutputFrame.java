@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One frame of terminal output as delivered to an {@link OutputSubscription}.
+ *
+ * <p>
+ * The bytes are not copied: all subscribers see the array the frame was
+ * encoded into. The frame is reference counted, and once every subscriber
+ * has released it the array goes back to the terminal for a later frame.
+ * Subscribers must not touch {@link #data()} views after
+ * {@link #release()}. A frame that is never released is simply left to the
+ * garbage collector.
+ * </p>
+ */
+public final class OutputFrame implements AutoCloseable {
+
+	private final long sequence;
+	private final byte[] array;
+	private final int offset;
+	private final int length;
+	private final OutputFanOut owner;
+	private final AtomicInteger references = new AtomicInteger(1);
+
+	OutputFrame(long sequence, byte[] array, int offset, int length, OutputFanOut owner) {
+		this.sequence = sequence;
+		this.array = array;
+		this.offset = offset;
+		this.length = length;
+		this.owner = owner;
+	}
+
+	/**
+	 * Returns the number of the frame. Frames are numbered consecutively per
+	 * terminal, so a gap shows that frames were dropped for this subscriber.
+	 */
+	public long sequence() {
+		return sequence;
+	}
+
+	/**
+	 * Returns the number of bytes in the frame.
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Returns a new read-only view of the frame's bytes. Views are cheap, each
+	 * has its own position and limit.
+	 */
+	public ByteBuffer data() {
+		return ByteBuffer.wrap(array, offset, length).slice().asReadOnlyBuffer();
+	}
+
+	void retain() {
+		references.incrementAndGet();
+	}
+
+	/**
+	 * Drops a reference that is known not to be the last one.
+	 */
+	void unretain() {
+		references.decrementAndGet();
+	}
+
+	/**
+	 * Releases this subscriber's reference. Releasing more than once per
+	 * delivery corrupts frames that reuse the array.
+	 */
+	public void release() {
+		if (references.decrementAndGet() == 0) {
+			owner.recycle(array);
+		}
+	}
+
+	@Override
+	public void close() {
+		release();
+	}
+}
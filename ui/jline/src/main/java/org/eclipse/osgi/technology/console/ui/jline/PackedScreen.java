@@ -0,0 +1,596 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.AbstractTextGraphics;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TabBehaviour;
+
+/**
+ * A {@link Screen} on a {@link JlineAdapterTerminal} that keeps its buffers in
+ * primitive arrays instead of one {@link TextCharacter} per cell.
+ *
+ * <p>
+ * Each buffer is an {@code int[]} of code points and a {@code long[]} of
+ * packed styles: foreground and background color and the active
+ * {@link SGR}s. A refresh compares the back and front buffer row by row with
+ * {@link Arrays#mismatch(int[], int, int, int[], int, int)}, which the JIT
+ * vectorizes, and writes each dirty span straight into the terminal's frame.
+ * Spans separated by only a few unchanged cells are merged, as rewriting them
+ * is cheaper than moving the cursor. Scrolling with
+ * {@link #scrollLines(int, int, int)} is done by the terminal.
+ * </p>
+ *
+ * <p>
+ * Grapheme clusters of several code points are kept in a side table, wide
+ * characters cover the following cell like in Lanterna's
+ * {@code TerminalScreen}.
+ * </p>
+ */
+public class PackedScreen implements Screen {
+
+	// style layout: foreground (26 bits), background (26 bits), SGR mask
+	// (9 bits), wide and padding flags. A color code is a 2 bit type tag and
+	// 24 bits of value.
+	private static final int COLOR_BITS = 26;
+	private static final long COLOR_MASK = (1L << COLOR_BITS) - 1;
+	private static final int SGR_SHIFT = 2 * COLOR_BITS;
+	static final long WIDE = 1L << 62;
+	static final long PADDING = 1L << 61;
+	private static final long FLAGS = WIDE | PADDING;
+
+	private static final int TAG_ANSI = 1 << 24;
+	private static final int TAG_INDEXED = 2 << 24;
+	private static final int TAG_RGB = 3 << 24;
+	private static final int TAG_MASK = 3 << 24;
+
+	private static final TextColor.ANSI[] ANSI = TextColor.ANSI.values();
+	private static final SGR[] SGRS = SGR.values();
+
+	static final long DEFAULT_STYLE = pack(TAG_ANSI | TextColor.ANSI.DEFAULT.ordinal(),
+			TAG_ANSI | TextColor.ANSI.DEFAULT.ordinal(), 0);
+
+	// unchanged cells between two dirty spans that are rewritten rather than
+	// skipped with a cursor move
+	private static final int MERGE_GAP = 8;
+	private static final int MAX_CLUSTERS = 4096;
+
+	private final JlineAdapterTerminal terminal;
+	private final Map<TextColor, Integer> colorCodes = new HashMap<>();
+	private final TextColor.Indexed[] indexedColors = new TextColor.Indexed[256];
+	private final List<String> clusters = new ArrayList<>();
+	private final Map<String, Integer> clusterIndexes = new HashMap<>();
+
+	private TerminalSize size;
+	private int columns;
+	private int[] backCells;
+	private long[] backStyles;
+	private int[] frontCells;
+	private long[] frontStyles;
+
+	private volatile TerminalSize pendingResize;
+	private TerminalPosition cursorPosition = TerminalPosition.TOP_LEFT_CORNER;
+	private Boolean cursorShown;
+	private TabBehaviour tabBehaviour = TabBehaviour.ALIGN_TO_COLUMN_4;
+	private boolean started;
+	private boolean fullRedraw = true;
+
+	// pending scroll of the back buffer that the terminal can repeat, or null;
+	// scrolls of different regions before a refresh are left to the diff
+	private int[] scrollHint;
+	private boolean scrollHintBroken;
+
+	public PackedScreen(JlineAdapterTerminal terminal) throws IOException {
+		this.terminal = terminal;
+		allocate(terminal.getTerminalSize());
+		terminal.addResizeListener((source, newSize) -> pendingResize = newSize);
+	}
+
+	private void allocate(TerminalSize newSize) {
+		int[] oldCells = backCells;
+		long[] oldStyles = backStyles;
+		int oldColumns = columns;
+		int oldRows = size == null ? 0 : size.getRows();
+
+		size = newSize;
+		columns = newSize.getColumns();
+		int cells = columns * newSize.getRows();
+		backCells = new int[cells];
+		backStyles = new long[cells];
+		frontCells = new int[cells];
+		frontStyles = new long[cells];
+		Arrays.fill(backCells, ' ');
+		Arrays.fill(backStyles, DEFAULT_STYLE);
+
+		if (oldCells != null) {
+			// keep what fits, like Lanterna's screen buffer
+			int keepColumns = Math.min(oldColumns, columns);
+			for (int row = 0; row < Math.min(oldRows, newSize.getRows()); row++) {
+				System.arraycopy(oldCells, row * oldColumns, backCells, row * columns, keepColumns);
+				System.arraycopy(oldStyles, row * oldColumns, backStyles, row * columns, keepColumns);
+			}
+		}
+		fullRedraw = true;
+	}
+
+	@Override
+	public synchronized void startScreen() throws IOException {
+		if (started) {
+			return;
+		}
+		started = true;
+		terminal.enterPrivateMode();
+		TerminalSize current = terminal.getTerminalSize();
+		if (!current.equals(size)) {
+			allocate(current);
+		}
+		fullRedraw = true;
+		cursorShown = null;
+	}
+
+	@Override
+	public synchronized void stopScreen() throws IOException {
+		if (!started) {
+			return;
+		}
+		terminal.exitPrivateMode();
+		started = false;
+	}
+
+	@Override
+	public void close() throws IOException {
+		stopScreen();
+	}
+
+	@Override
+	public synchronized void clear() {
+		Arrays.fill(backCells, ' ');
+		Arrays.fill(backStyles, DEFAULT_STYLE);
+		scrollHint = null;
+		scrollHintBroken = true;
+	}
+
+	@Override
+	public synchronized TerminalPosition getCursorPosition() {
+		return cursorPosition;
+	}
+
+	@Override
+	public synchronized void setCursorPosition(TerminalPosition position) {
+		if (position != null && (position.getColumn() < 0 || position.getColumn() >= columns
+				|| position.getRow() < 0 || position.getRow() >= size.getRows())) {
+			return;
+		}
+		this.cursorPosition = position;
+	}
+
+	@Override
+	public TabBehaviour getTabBehaviour() {
+		return tabBehaviour;
+	}
+
+	@Override
+	public void setTabBehaviour(TabBehaviour tabBehaviour) {
+		if (tabBehaviour != null) {
+			this.tabBehaviour = tabBehaviour;
+		}
+	}
+
+	@Override
+	public synchronized TerminalSize getTerminalSize() {
+		return size;
+	}
+
+	@Override
+	public void setCharacter(TerminalPosition position, TextCharacter screenCharacter) {
+		setCharacter(position.getColumn(), position.getRow(), screenCharacter);
+	}
+
+	@Override
+	public synchronized void setCharacter(int column, int row, TextCharacter screenCharacter) {
+		if (column < 0 || row < 0 || column >= columns || row >= size.getRows()) {
+			return;
+		}
+		String text = screenCharacter.getCharacterString();
+		if ("\t".equals(text)) {
+			String replacement = tabBehaviour.getTabReplacement(column);
+			TextCharacter blank = screenCharacter.withCharacter(' ');
+			for (int i = 0; i < replacement.length(); i++) {
+				setCharacter(column + i, row, blank);
+			}
+			return;
+		}
+
+		int offset = row * columns;
+		int i = offset + column;
+		long style = style(screenCharacter);
+		boolean wide = screenCharacter.isDoubleWidth();
+
+		// overwriting either half of a wide character blanks the other half
+		if ((backStyles[i] & PADDING) != 0 && column > 0) {
+			backCells[i - 1] = ' ';
+			backStyles[i - 1] &= ~WIDE;
+		}
+		if ((backStyles[i] & WIDE) != 0 && column + 1 < columns) {
+			backStyles[i + 1] &= ~PADDING;
+		}
+
+		backCells[i] = cell(text);
+		backStyles[i] = wide ? style | WIDE : style;
+		if (wide && column + 1 < columns) {
+			if ((backStyles[i + 1] & WIDE) != 0 && column + 2 < columns) {
+				backStyles[i + 2] &= ~PADDING;
+			}
+			backCells[i + 1] = ' ';
+			backStyles[i + 1] = style | PADDING;
+		}
+	}
+
+	/**
+	 * Copies {@code length} cells in the packed format into the back buffer,
+	 * starting at the given position. Cells beyond the right edge are dropped.
+	 * Used by {@link TerminalMultiplexer} to composite its virtual terminals.
+	 */
+	synchronized void putCells(int column, int row, int[] cells, long[] styles, int from, int length) {
+		if (column < 0 || row < 0 || column >= columns || row >= size.getRows()) {
+			return;
+		}
+		int count = Math.min(length, columns - column);
+		int offset = row * columns + column;
+		System.arraycopy(cells, from, backCells, offset, count);
+		System.arraycopy(styles, from, backStyles, offset, count);
+	}
+
+	/**
+	 * Returns the packed style for the colors and the mask of {@link SGR}s
+	 * ({@code 1 << ordinal}), as stored by {@link #putCells}.
+	 */
+	synchronized long style(TextColor foreground, TextColor background, int modifiers) {
+		return pack(colorCode(foreground), colorCode(background), modifiers);
+	}
+
+	@Override
+	public TextGraphics newTextGraphics() {
+		return new ScreenGraphics();
+	}
+
+	@Override
+	public TextCharacter getFrontCharacter(TerminalPosition position) {
+		return getFrontCharacter(position.getColumn(), position.getRow());
+	}
+
+	@Override
+	public synchronized TextCharacter getFrontCharacter(int column, int row) {
+		return character(frontCells, frontStyles, column, row);
+	}
+
+	@Override
+	public TextCharacter getBackCharacter(TerminalPosition position) {
+		return getBackCharacter(position.getColumn(), position.getRow());
+	}
+
+	@Override
+	public synchronized TextCharacter getBackCharacter(int column, int row) {
+		return character(backCells, backStyles, column, row);
+	}
+
+	@Override
+	public void refresh() throws IOException {
+		refresh(RefreshType.AUTOMATIC);
+	}
+
+	/**
+	 * Writes the changes since the last refresh. {@link RefreshType#AUTOMATIC}
+	 * and {@link RefreshType#DELTA} both write only the dirty spans;
+	 * {@link RefreshType#COMPLETE} clears the terminal and redraws everything.
+	 */
+	@Override
+	public synchronized void refresh(RefreshType refreshType) throws IOException {
+		if (refreshType == RefreshType.COMPLETE || fullRedraw) {
+			// the terminal is blank afterwards, so only non-blank cells differ
+			Arrays.fill(frontCells, ' ');
+			Arrays.fill(frontStyles, DEFAULT_STYLE);
+			terminal.resetColorAndSGR();
+			terminal.clearScreen();
+			fullRedraw = false;
+		} else if (scrollHint != null) {
+			terminal.scrollLines(scrollHint[0], scrollHint[1], scrollHint[2]);
+			scroll(frontCells, frontStyles, scrollHint[0], scrollHint[1], scrollHint[2]);
+		}
+		scrollHint = null;
+		scrollHintBroken = false;
+
+		int rows = size.getRows();
+		for (int row = 0; row < rows; row++) {
+			refreshRow(row);
+		}
+
+		if (cursorPosition == null) {
+			showCursor(false);
+		} else {
+			showCursor(true);
+			terminal.setCursorPosition(cursorPosition.getColumn(), cursorPosition.getRow());
+		}
+		terminal.flush();
+	}
+
+	private void refreshRow(int row) throws IOException {
+		int offset = row * columns;
+		int column = 0;
+		while (column < columns) {
+			int start = mismatch(offset, column, columns);
+			if (start < 0) {
+				return;
+			}
+			int end = start + 1;
+			while (end < columns) {
+				int next = mismatch(offset, end, columns);
+				if (next < 0 || next - end >= MERGE_GAP) {
+					break;
+				}
+				end = next + 1;
+			}
+			// a wide character is always written together with its padding
+			if ((backStyles[offset + start] & PADDING) != 0 && start > 0) {
+				start--;
+			}
+			if (end < columns && (backStyles[offset + end - 1] & WIDE) != 0) {
+				end++;
+			}
+			writeSpan(offset, row, start, end);
+			column = end;
+		}
+	}
+
+	/**
+	 * Returns the first column in {@code [from, to)} where the back and front
+	 * buffer differ, or {@code -1}.
+	 */
+	private int mismatch(int offset, int from, int to) {
+		int cells = Arrays.mismatch(backCells, offset + from, offset + to, frontCells, offset + from, offset + to);
+		int styles = Arrays.mismatch(backStyles, offset + from, offset + to, frontStyles, offset + from,
+				offset + to);
+		if (cells < 0) {
+			return styles < 0 ? -1 : from + styles;
+		}
+		return from + (styles < 0 ? cells : Math.min(cells, styles));
+	}
+
+	private void writeSpan(int offset, int row, int start, int end) throws IOException {
+		terminal.setCursorPosition(start, row);
+		long current = -1;
+		for (int column = start; column < end; column++) {
+			int i = offset + column;
+			long style = backStyles[i];
+			if ((style & PADDING) != 0 && column > start) {
+				// covered by the wide character before it
+				continue;
+			}
+			style &= ~FLAGS;
+			if (style != current) {
+				terminal.applyStyle(color((int) (style & COLOR_MASK)),
+						color((int) (style >>> COLOR_BITS & COLOR_MASK)), (int) (style >>> SGR_SHIFT) & 0x1FF);
+				current = style;
+			}
+			int cell = backCells[i];
+			if (cell >= 0) {
+				terminal.putCodePoint(cell);
+			} else {
+				terminal.putString(clusters.get(-cell - 1));
+			}
+		}
+		System.arraycopy(backCells, offset + start, frontCells, offset + start, end - start);
+		System.arraycopy(backStyles, offset + start, frontStyles, offset + start, end - start);
+	}
+
+	private void showCursor(boolean visible) throws IOException {
+		if (cursorShown == null || cursorShown != visible) {
+			terminal.setCursorVisible(visible);
+			cursorShown = visible;
+		}
+	}
+
+	@Override
+	public synchronized TerminalSize doResizeIfNecessary() {
+		TerminalSize newSize = pendingResize;
+		if (newSize == null) {
+			return null;
+		}
+		pendingResize = null;
+		if (newSize.equals(size)) {
+			return null;
+		}
+		allocate(newSize);
+		scrollHint = null;
+		if (cursorPosition != null && (cursorPosition.getColumn() >= columns
+				|| cursorPosition.getRow() >= newSize.getRows())) {
+			cursorPosition = new TerminalPosition(Math.min(cursorPosition.getColumn(), columns - 1),
+					Math.min(cursorPosition.getRow(), newSize.getRows() - 1));
+		}
+		return newSize;
+	}
+
+	/**
+	 * Scrolls the back buffer. Unless other scrolls intervene, the next refresh
+	 * lets the terminal scroll as well and writes only the rows scrolled in.
+	 */
+	@Override
+	public synchronized void scrollLines(int firstLine, int lastLine, int distance) {
+		int top = Math.max(0, firstLine);
+		int bottom = Math.min(size.getRows() - 1, lastLine);
+		if (distance == 0 || bottom < top) {
+			return;
+		}
+		scroll(backCells, backStyles, top, bottom, distance);
+
+		if (scrollHintBroken || fullRedraw) {
+			return;
+		}
+		if (scrollHint == null) {
+			scrollHint = new int[] { top, bottom, distance };
+		} else if (scrollHint[0] == top && scrollHint[1] == bottom) {
+			scrollHint[2] += distance;
+		} else {
+			scrollHint = null;
+			scrollHintBroken = true;
+		}
+	}
+
+	private void scroll(int[] cells, long[] styles, int top, int bottom, int distance) {
+		int lines = Math.min(Math.abs(distance), bottom - top + 1);
+		int moved = (bottom - top + 1 - lines) * columns;
+		int blank;
+		if (distance > 0) {
+			System.arraycopy(cells, (top + lines) * columns, cells, top * columns, moved);
+			System.arraycopy(styles, (top + lines) * columns, styles, top * columns, moved);
+			blank = (bottom + 1 - lines) * columns;
+		} else {
+			System.arraycopy(cells, top * columns, cells, (top + lines) * columns, moved);
+			System.arraycopy(styles, top * columns, styles, (top + lines) * columns, moved);
+			blank = top * columns;
+		}
+		Arrays.fill(cells, blank, blank + lines * columns, ' ');
+		Arrays.fill(styles, blank, blank + lines * columns, DEFAULT_STYLE);
+	}
+
+	@Override
+	public KeyStroke pollInput() throws IOException {
+		return terminal.pollInput();
+	}
+
+	@Override
+	public KeyStroke readInput() throws IOException {
+		return terminal.readInput();
+	}
+
+	private int cell(String text) {
+		int codePoint = text.codePointAt(0);
+		if (text.length() == Character.charCount(codePoint)) {
+			return codePoint;
+		}
+		Integer index = clusterIndexes.get(text);
+		if (index == null) {
+			if (clusters.size() >= MAX_CLUSTERS) {
+				return codePoint;
+			}
+			index = clusters.size();
+			clusters.add(text);
+			clusterIndexes.put(text, index);
+		}
+		return -index - 1;
+	}
+
+	private long style(TextCharacter character) {
+		int modifiers = 0;
+		for (SGR sgr : character.getModifiers()) {
+			modifiers |= 1 << sgr.ordinal();
+		}
+		return pack(colorCode(character.getForegroundColor()), colorCode(character.getBackgroundColor()),
+				modifiers);
+	}
+
+	private static long pack(int foreground, int background, int modifiers) {
+		return foreground | (long) background << COLOR_BITS | (long) modifiers << SGR_SHIFT;
+	}
+
+	private int colorCode(TextColor color) {
+		if (color instanceof TextColor.ANSI ansi) {
+			return TAG_ANSI | ansi.ordinal();
+		}
+		if (color instanceof TextColor.RGB rgb) {
+			return TAG_RGB | rgb.getRed() << 16 | rgb.getGreen() << 8 | rgb.getBlue();
+		}
+		if (color instanceof TextColor.Indexed indexed) {
+			Integer code = colorCodes.get(indexed);
+			if (code == null) {
+				code = TAG_INDEXED | AnsiSequences.paletteIndex(indexed);
+				colorCodes.put(indexed, code);
+			}
+			return code;
+		}
+		return TAG_ANSI | TextColor.ANSI.DEFAULT.ordinal();
+	}
+
+	private TextColor color(int code) {
+		int value = code & ~TAG_MASK;
+		switch (code & TAG_MASK) {
+		case TAG_INDEXED:
+			TextColor.Indexed indexed = indexedColors[value];
+			if (indexed == null) {
+				indexed = new TextColor.Indexed(value);
+				indexedColors[value] = indexed;
+			}
+			return indexed;
+		case TAG_RGB:
+			return new TextColor.RGB(value >> 16, value >> 8 & 0xFF, value & 0xFF);
+		default:
+			return ANSI[value];
+		}
+	}
+
+	private TextCharacter character(int[] cells, long[] styles, int column, int row) {
+		if (column < 0 || row < 0 || column >= columns || row >= size.getRows()) {
+			return null;
+		}
+		int i = row * columns + column;
+		int cell = cells[i];
+		long style = styles[i];
+		EnumSet<SGR> modifiers = EnumSet.noneOf(SGR.class);
+		for (SGR sgr : SGRS) {
+			if ((style >>> SGR_SHIFT & 1L << sgr.ordinal()) != 0) {
+				modifiers.add(sgr);
+			}
+		}
+		String text = cell >= 0 ? new String(Character.toChars(cell)) : clusters.get(-cell - 1);
+		return TextCharacter.fromString(text, color((int) (style & COLOR_MASK)),
+				color((int) (style >>> COLOR_BITS & COLOR_MASK)), modifiers)[0];
+	}
+
+	/**
+	 * Draws into the back buffer.
+	 */
+	private final class ScreenGraphics extends AbstractTextGraphics {
+
+		@Override
+		public TerminalSize getSize() {
+			return getTerminalSize();
+		}
+
+		@Override
+		public TextGraphics setCharacter(int columnIndex, int rowIndex, TextCharacter textCharacter) {
+			PackedScreen.this.setCharacter(columnIndex, rowIndex, textCharacter);
+			return this;
+		}
+
+		@Override
+		public TextCharacter getCharacter(int column, int row) {
+			return getBackCharacter(column, row);
+		}
+	}
+}
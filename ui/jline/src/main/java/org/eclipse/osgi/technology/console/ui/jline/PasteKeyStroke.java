@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+
+/**
+ * A bracketed paste delivered as a single event.
+ *
+ * <p>
+ * {@link JlineAdapterTerminal} reports pastes this way if its
+ * {@link JlineAdapterTerminal#PASTE_MODE pasteMode} is {@code event}; otherwise
+ * a paste arrives as a batch of ordinary keystrokes. Components that do not
+ * know this type see a key of type {@link KeyType#Unknown}.
+ * </p>
+ */
+public class PasteKeyStroke extends KeyStroke {
+
+	private final String text;
+
+	public PasteKeyStroke(String text) {
+		super(KeyType.Unknown);
+		this.text = text;
+	}
+
+	/**
+	 * Returns the pasted text, with line breaks as sent by the terminal
+	 * (usually {@code \r}).
+	 */
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return "PasteKeyStroke{" + text.length() + " characters}";
+	}
+}
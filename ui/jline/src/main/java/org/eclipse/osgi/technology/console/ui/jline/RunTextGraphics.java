@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.graphics.AbstractTextGraphics;
+import com.googlecode.lanterna.graphics.TextGraphics;
+
+/**
+ * {@link TextGraphics} drawing straight on a {@link JlineAdapterTerminal}.
+ *
+ * <p>
+ * Rectangles, horizontal lines and the top and bottom edges of rectangles
+ * are written as runs of one character per row, which the terminal can send
+ * as a single ECH or REP sequence instead of cell by cell. Like Lanterna's own
+ * terminal graphics, the characters written are remembered for
+ * {@link #getCharacter(int, int)}.
+ * </p>
+ */
+final class RunTextGraphics extends AbstractTextGraphics {
+
+	private final JlineAdapterTerminal terminal;
+	private final TerminalSize size;
+	private final TextCharacter[] written;
+
+	RunTextGraphics(JlineAdapterTerminal terminal) throws IOException {
+		this.terminal = terminal;
+		this.size = terminal.getTerminalSize();
+		this.written = new TextCharacter[size.getColumns() * size.getRows()];
+	}
+
+	@Override
+	public TerminalSize getSize() {
+		return size;
+	}
+
+	@Override
+	public TextGraphics setCharacter(int columnIndex, int rowIndex, TextCharacter textCharacter) {
+		run(columnIndex, rowIndex, textCharacter, 1);
+		return this;
+	}
+
+	@Override
+	public TextCharacter getCharacter(int column, int row) {
+		if (column < 0 || row < 0 || column >= size.getColumns() || row >= size.getRows()) {
+			return null;
+		}
+		return written[row * size.getColumns() + column];
+	}
+
+	@Override
+	public TextGraphics fillRectangle(TerminalPosition topLeft, TerminalSize rectangle, TextCharacter character) {
+		for (int row = 0; row < rectangle.getRows(); row++) {
+			run(topLeft.getColumn(), topLeft.getRow() + row, character, rectangle.getColumns());
+		}
+		return this;
+	}
+
+	@Override
+	public TextGraphics drawRectangle(TerminalPosition topLeft, TerminalSize rectangle, TextCharacter character) {
+		int width = rectangle.getColumns();
+		int height = rectangle.getRows();
+		if (width <= 0 || height <= 0) {
+			return this;
+		}
+		int left = topLeft.getColumn();
+		int top = topLeft.getRow();
+		run(left, top, character, width);
+		for (int row = top + 1; row < top + height - 1; row++) {
+			run(left, row, character, 1);
+			if (width > 1) {
+				run(left + width - 1, row, character, 1);
+			}
+		}
+		if (height > 1) {
+			run(left, top + height - 1, character, width);
+		}
+		return this;
+	}
+
+	@Override
+	public TextGraphics drawLine(TerminalPosition from, TerminalPosition to, TextCharacter character) {
+		if (from.getRow() != to.getRow()) {
+			return super.drawLine(from, to, character);
+		}
+		int left = Math.min(from.getColumn(), to.getColumn());
+		run(left, from.getRow(), character, Math.abs(to.getColumn() - from.getColumn()) + 1);
+		return this;
+	}
+
+	/**
+	 * Writes {@code count} copies of {@code character} from the given cell on,
+	 * clipped to the terminal.
+	 */
+	private void run(int column, int row, TextCharacter character, int count) {
+		if (row < 0 || row >= size.getRows()) {
+			return;
+		}
+		int start = Math.max(0, column);
+		int end = Math.min(size.getColumns(), column + count);
+		if (start >= end) {
+			return;
+		}
+		try {
+			if (character.isDoubleWidth()) {
+				// every copy covers two cells; leave the overlap to the terminal
+				for (int i = start; i < end; i++) {
+					terminal.putRun(i, row, character, 1);
+				}
+			} else {
+				terminal.putRun(start, row, character, end - start);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		int offset = row * size.getColumns();
+		Arrays.fill(written, offset + start, offset + end, character);
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+
+import org.jline.terminal.Terminal;
+import org.jline.utils.InfoCmp.Capability;
+
+/**
+ * What a terminal can render, probed once when the adapter is created.
+ *
+ * <p>
+ * Support for synchronized output is not described by terminfo; the adapter
+ * asks the terminal itself with a DECRQM query when entering private mode.
+ * </p>
+ *
+ * @param colors          the colors the terminal renders
+ * @param bracketedPaste  whether pastes may be requested in bracketed form
+ * @param eraseCharacters whether ECH erases characters in place
+ * @param backColorErase  whether erased cells take the current background
+ * @param repeatCharacter whether REP repeats the preceding character
+ */
+record TerminalCapabilities(ColorDepth colors, boolean bracketedPaste, boolean eraseCharacters,
+		boolean backColorErase, boolean repeatCharacter) {
+
+	/**
+	 * The colors a terminal can render, in increasing order.
+	 */
+	enum ColorDepth {
+		/** The 16 ANSI colors. */
+		ANSI,
+		/** The xterm palette of 256 colors. */
+		INDEXED,
+		/** 24-bit RGB. */
+		TRUECOLOR
+	}
+
+	/**
+	 * Probes the terminal.
+	 *
+	 * <p>
+	 * The color depth is taken from the {@code colors} setting unless it is
+	 * {@code auto}. Otherwise {@code COLORTERM=truecolor} (or {@code 24bit}),
+	 * which terminfo cannot express for most terminals, selects true color, and
+	 * the {@code max_colors} capability decides between the rest.
+	 * </p>
+	 *
+	 * @param terminal    the terminal to probe
+	 * @param colors      {@code auto}, {@code truecolor}, {@code 256} or
+	 *                    {@code 16}
+	 * @param environment environment variable lookup
+	 * @throws IllegalArgumentException for an unknown {@code colors} setting
+	 */
+	static TerminalCapabilities probe(Terminal terminal, String colors, UnaryOperator<String> environment) {
+		boolean dumb = terminal.getType() == null || terminal.getType().startsWith(Terminal.TYPE_DUMB);
+		return new TerminalCapabilities(colorDepth(terminal, colors, environment), !dumb,
+				terminal.getStringCapability(Capability.erase_chars) != null,
+				terminal.getBooleanCapability(Capability.back_color_erase),
+				terminal.getStringCapability(Capability.repeat_char) != null);
+	}
+
+	private static ColorDepth colorDepth(Terminal terminal, String setting, UnaryOperator<String> environment) {
+		ColorDepth configured = switch (setting.toLowerCase(Locale.ROOT)) {
+		case "truecolor" -> ColorDepth.TRUECOLOR;
+		case "256" -> ColorDepth.INDEXED;
+		case "16" -> ColorDepth.ANSI;
+		case "auto" -> null;
+		default -> throw new IllegalArgumentException("Unknown color setting: " + setting);
+		};
+		if (configured != null) {
+			return configured;
+		}
+
+		String colorTerm = environment.apply("COLORTERM");
+		if ("truecolor".equalsIgnoreCase(colorTerm) || "24bit".equalsIgnoreCase(colorTerm)) {
+			return ColorDepth.TRUECOLOR;
+		}
+		Integer maxColors = terminal.getNumericCapability(Capability.max_colors);
+		if (maxColors == null) {
+			return ColorDepth.ANSI;
+		}
+		// the *-direct terminfo entries announce 2^24 colors
+		return maxColors >= 1 << 24 ? ColorDepth.TRUECOLOR
+				: maxColors >= 256 ? ColorDepth.INDEXED : ColorDepth.ANSI;
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR events of {@link JlineAdapterTerminal}. They carry their measured time
+ * in a {@code nanos} field, since it is taken before the event is created.
+ */
+final class TerminalEvents {
+
+	private static final String PREFIX = "org.eclipse.osgi.technology.console.ui.jline.";
+
+	private TerminalEvents() {
+	}
+
+	@Name(PREFIX + "InputDecode")
+	@Label("Terminal Input Decode")
+	@Description("A chunk of terminal input was decoded and published")
+	@Category({ "OSGi Console", "Terminal" })
+	static final class InputDecode extends Event {
+		@Label("Characters")
+		int characters;
+
+		@Label("Keystrokes")
+		int keystrokes;
+
+		@Label("Decode Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long nanos;
+	}
+
+	@Name(PREFIX + "EscapeTimeout")
+	@Label("Terminal Escape Timeout")
+	@Description("An escape sequence was still incomplete when the escape timeout expired")
+	@Category({ "OSGi Console", "Terminal" })
+	static final class EscapeTimeout extends Event {
+		@Label("Pending Characters")
+		int length;
+	}
+
+	@Name(PREFIX + "FrameFlush")
+	@Label("Terminal Frame Flush")
+	@Description("A frame was written to the terminal and flushed")
+	@Category({ "OSGi Console", "Terminal" })
+	static final class FrameFlush extends Event {
+		@Label("Bytes")
+		@DataAmount(DataAmount.BYTES)
+		int bytes;
+
+		@Label("Write Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long nanos;
+	}
+}
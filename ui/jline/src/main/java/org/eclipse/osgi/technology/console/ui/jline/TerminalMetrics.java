@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * Counters of the {@link JlineAdapterTerminal} hot paths, registered as a
+ * service next to the terminal.
+ *
+ * <p>
+ * All values are cumulative since the terminal was created and cheap to
+ * maintain, so they are always on. The same measurements are also emitted as
+ * JFR events in the {@code OSGi Console / Terminal} category.
+ * </p>
+ */
+@ProviderType
+public interface TerminalMetrics {
+
+	/**
+	 * Number of {@code pollInput()} calls.
+	 */
+	long polls();
+
+	/**
+	 * Number of keystrokes (including mouse and paste events) decoded.
+	 */
+	long keystrokes();
+
+	/**
+	 * Nanoseconds spent decoding and publishing input chunks.
+	 */
+	long decodeNanos();
+
+	/**
+	 * Number of escape sequences that were incomplete when the escape timeout
+	 * expired, including every lone ESC key.
+	 */
+	long escapeTimeouts();
+
+	/**
+	 * Number of frames written to the terminal.
+	 */
+	long flushes();
+
+	/**
+	 * Bytes written to the terminal in frames.
+	 */
+	long bytesWritten();
+
+	/**
+	 * Nanoseconds spent writing and flushing frames.
+	 */
+	long flushNanos();
+}
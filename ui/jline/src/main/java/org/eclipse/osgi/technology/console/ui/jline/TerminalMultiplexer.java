@@ -0,0 +1,471 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.input.MouseAction;
+import com.googlecode.lanterna.terminal.Terminal;
+import com.googlecode.lanterna.terminal.TerminalResizeListener;
+
+/**
+ * Shares one {@link JlineAdapterTerminal} between several Lanterna
+ * applications.
+ *
+ * <p>
+ * Every consumer gets its own {@link VirtualTerminal}, either as a
+ * bundle-scoped {@link Terminal} service or from {@link #open(String)}. A
+ * virtual terminal draws into its own cell buffer, and its {@code flush()}
+ * only requests a frame. The frame thread copies the changed rows of the
+ * visible terminals into a {@link PackedScreen} on the physical terminal and
+ * refreshes it, so each frame is a single batched write however many
+ * terminals changed.
+ * </p>
+ *
+ * <p>
+ * The {@code tabs} layout shows one terminal at a time below a tab bar, the
+ * {@code split} layout stacks all of them, each below a title row. Input goes
+ * to the focused terminal. Like in tmux, {@code Ctrl+B} followed by a digit,
+ * {@code n} or {@code p} (or an arrow key) switches the focus, and
+ * {@code Ctrl+B} twice sends it through. Mouse events go to the terminal
+ * under the pointer, and clicks focus it.
+ * </p>
+ *
+ * <p>
+ * The component requires a configuration, so by default the adapter stays a
+ * plain singleton service. Once configured, the virtual terminals are
+ * registered with a higher service ranking than the adapter and are bound by
+ * {@link Terminal} references from then on.
+ * </p>
+ */
+@Component(configurationPid = TerminalMultiplexer.PID, configurationPolicy = ConfigurationPolicy.REQUIRE, service = TerminalMultiplexer.class)
+public class TerminalMultiplexer implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(TerminalMultiplexer.class);
+
+	public static final String PID = "org.eclipse.osgi.technology.console.ui.jline.multiplexer";
+
+	/**
+	 * Service property of the virtual terminals. The multiplexer itself binds
+	 * the terminal without it.
+	 */
+	public static final String MULTIPLEXED = "multiplexed";
+
+	/**
+	 * Configuration property for the layout: {@code tabs} (default) or
+	 * {@code split}.
+	 */
+	public static final String LAYOUT = "layout";
+
+	private final JlineAdapterTerminal terminal;
+	private final PackedScreen screen;
+	private final boolean split;
+	private final List<VirtualTerminal> terminals = new CopyOnWriteArrayList<>();
+	private final ExecutorService frames;
+	private final AtomicBoolean framePending = new AtomicBoolean();
+	private final Runnable inputListener = this::routeInput;
+	private final TerminalResizeListener resizeListener = (source, newSize) -> relayout();
+	private final long titleStyle;
+	private final long focusedTitleStyle;
+	private final long barStyle;
+
+	private volatile VirtualTerminal focused;
+	private volatile boolean layoutChanged = true;
+	private volatile boolean closed;
+
+	// only touched on the input thread
+	private KeyStroke prefix;
+
+	@Activate
+	public TerminalMultiplexer(@Reference(target = "(!(" + MULTIPLEXED + "=true))") Terminal terminal,
+			Map<String, Object> properties) throws IOException {
+		this(adapter(terminal), properties);
+	}
+
+	public TerminalMultiplexer(JlineAdapterTerminal terminal, Map<String, Object> properties) throws IOException {
+		this.terminal = terminal;
+		this.split = "split".equals(String.valueOf(properties.get(LAYOUT)).trim());
+		this.screen = new PackedScreen(terminal);
+		this.titleStyle = screen.style(TextColor.ANSI.DEFAULT, TextColor.ANSI.DEFAULT, 0);
+		this.focusedTitleStyle = screen.style(TextColor.ANSI.DEFAULT, TextColor.ANSI.DEFAULT,
+				1 << SGR.BOLD.ordinal() | (split ? 1 << SGR.REVERSE.ordinal() : 0));
+		this.barStyle = screen.style(TextColor.ANSI.DEFAULT, TextColor.ANSI.DEFAULT, 1 << SGR.REVERSE.ordinal());
+		this.frames = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "TerminalMultiplexer-frame");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		screen.startScreen();
+		terminal.addResizeListener(resizeListener);
+		// starts the adapter's input thread, the only one that calls routeInput()
+		terminal.addInputListener(inputListener);
+		logger.debug("Terminal multiplexer started ({} layout)", split ? "split" : "tabs");
+	}
+
+	private static JlineAdapterTerminal adapter(Terminal terminal) {
+		if (terminal instanceof JlineAdapterTerminal adapter) {
+			return adapter;
+		}
+		throw new IllegalArgumentException("Not a JlineAdapterTerminal: " + terminal.getClass().getName());
+	}
+
+	/**
+	 * Opens a new virtual terminal with the given title. It is focused if it is
+	 * the first one.
+	 */
+	public VirtualTerminal open(String title) {
+		return new VirtualTerminal(this, title);
+	}
+
+	@Deactivate
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		terminal.removeInputListener(inputListener);
+		terminal.removeResizeListener(resizeListener);
+		frames.shutdownNow();
+		for (VirtualTerminal virtual : terminals) {
+			virtual.close();
+		}
+		synchronized (this) {
+			screen.stopScreen();
+		}
+		logger.debug("Terminal multiplexer stopped");
+	}
+
+	synchronized void attach(VirtualTerminal virtual) {
+		terminals.add(virtual);
+		if (focused == null) {
+			focused = virtual;
+		}
+		// place it right away, so it has a size before it is used
+		layout();
+		requestFrame();
+	}
+
+	synchronized void detach(VirtualTerminal virtual) {
+		if (!terminals.remove(virtual)) {
+			return;
+		}
+		if (focused == virtual) {
+			focused = terminals.isEmpty() ? null : terminals.get(0);
+		}
+		relayout();
+	}
+
+	long style(TextColor foreground, TextColor background, int modifiers) {
+		return screen.style(foreground, background, modifiers);
+	}
+
+	byte[] enquireTerminal() throws IOException {
+		return terminal.enquireTerminal(0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Makes the next frame lay out the terminals and their titles again.
+	 */
+	private void relayout() {
+		layoutChanged = true;
+		requestFrame();
+	}
+
+	/**
+	 * Schedules a frame unless one is already pending. Requests that arrive
+	 * while a frame is being composited schedule the next one.
+	 */
+	void requestFrame() {
+		if (closed || !framePending.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			frames.execute(this::frame);
+		} catch (RejectedExecutionException e) {
+			logger.debug("Frame after close ignored");
+		}
+	}
+
+	private void frame() {
+		framePending.set(false);
+		if (closed) {
+			return;
+		}
+		try {
+			composite();
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Frame failed: {}", e.getMessage());
+		}
+	}
+
+	private synchronized void composite() throws IOException {
+		if (screen.doResizeIfNecessary() != null) {
+			layoutChanged = true;
+		}
+		if (layoutChanged) {
+			layoutChanged = false;
+			layout();
+		}
+		boolean bell = false;
+		for (VirtualTerminal virtual : terminals) {
+			bell |= virtual.render(screen);
+		}
+		VirtualTerminal current = focused;
+		screen.setCursorPosition(current == null ? null : current.screenCursor());
+		screen.refresh();
+		if (bell) {
+			terminal.bell();
+		}
+	}
+
+	/**
+	 * Assigns every terminal its region and draws the tab bar or the titles
+	 * into the cleared screen. Terminals whose size changed are notified
+	 * afterwards.
+	 */
+	private void layout() {
+		TerminalSize size = screen.getTerminalSize();
+		int columns = size.getColumns();
+		int rows = size.getRows();
+		List<VirtualTerminal> resized = new ArrayList<>();
+		screen.clear();
+
+		if (split) {
+			int count = terminals.size();
+			int height = count == 0 ? 0 : Math.max(1, (rows - count) / count);
+			int row = 0;
+			for (int i = 0; i < count; i++) {
+				VirtualTerminal virtual = terminals.get(i);
+				int paneRows = i == count - 1 ? Math.max(height, rows - row - 1) : height;
+				boolean shown = row + 1 + paneRows <= rows;
+				int end = 0;
+				if (shown) {
+					fill(0, row, columns, '\u2500', titleStyle);
+					end = label(1, row, columns, virtual, i, titleStyle);
+				}
+				if (virtual.place(new Region(row + 1, paneRows, shown, row, 1, end), new TerminalSize(columns, paneRows))) {
+					resized.add(virtual);
+				}
+				row += paneRows + 1;
+			}
+		} else {
+			fill(0, 0, columns, ' ', barStyle);
+			int paneRows = Math.max(1, rows - 1);
+			TerminalSize paneSize = new TerminalSize(columns, paneRows);
+			int column = 0;
+			for (int i = 0; i < terminals.size(); i++) {
+				VirtualTerminal virtual = terminals.get(i);
+				int end = label(column, 0, columns, virtual, i, barStyle);
+				if (virtual.place(new Region(1, paneRows, virtual == focused, 0, column, end), paneSize)) {
+					resized.add(virtual);
+				}
+				column = end;
+			}
+		}
+
+		for (VirtualTerminal virtual : resized) {
+			virtual.notifyResized();
+		}
+	}
+
+	/**
+	 * Draws the label of the terminal at {@code index} into a title row and
+	 * returns the column after it.
+	 */
+	private int label(int column, int row, int columns, VirtualTerminal virtual, int index, long style) {
+		String label = " " + (index + 1) + " " + virtual.getTitle() + " ";
+		int length = Math.min(label.length(), Math.max(0, columns - column));
+		int[] cells = new int[length];
+		long[] styles = new long[length];
+		for (int i = 0; i < length; i++) {
+			cells[i] = label.charAt(i);
+		}
+		Arrays.fill(styles, virtual == focused ? focusedTitleStyle : style);
+		screen.putCells(column, row, cells, styles, 0, length);
+		return column + length;
+	}
+
+	private void fill(int column, int row, int length, int cell, long style) {
+		int[] cells = new int[length];
+		long[] styles = new long[length];
+		Arrays.fill(cells, cell);
+		Arrays.fill(styles, style);
+		screen.putCells(column, row, cells, styles, 0, length);
+	}
+
+	/**
+	 * Drains the adapter's input queue. Runs on its input thread, and must not
+	 * block.
+	 */
+	private void routeInput() {
+		try {
+			KeyStroke key;
+			while ((key = terminal.pollInput()) != null) {
+				route(key);
+			}
+		} catch (IOException e) {
+			logger.debug("Input failed: {}", e.getMessage());
+		}
+	}
+
+	private void route(KeyStroke key) {
+		if (prefix != null) {
+			KeyStroke pending = prefix;
+			prefix = null;
+			command(pending, key);
+			return;
+		}
+		if (isPrefix(key)) {
+			prefix = key;
+			return;
+		}
+		if (key.getKeyType() == KeyType.EOF) {
+			for (VirtualTerminal virtual : terminals) {
+				virtual.input(key);
+			}
+			return;
+		}
+		if (key instanceof MouseAction mouse) {
+			mouse(mouse);
+			return;
+		}
+		VirtualTerminal target = focused;
+		if (target != null) {
+			target.input(key);
+		}
+	}
+
+	private static boolean isPrefix(KeyStroke key) {
+		return key.getKeyType() == KeyType.Character && key.isCtrlDown() && !key.isAltDown()
+				&& key.getCharacter() == 'b';
+	}
+
+	/**
+	 * Handles the key after the prefix key.
+	 */
+	private void command(KeyStroke prefixKey, KeyStroke key) {
+		if (isPrefix(key)) {
+			VirtualTerminal target = focused;
+			if (target != null) {
+				target.input(prefixKey);
+			}
+			return;
+		}
+		int index = terminals.indexOf(focused);
+		int count = terminals.size();
+		if (count == 0) {
+			return;
+		}
+		switch (key.getKeyType()) {
+		case ArrowRight -> focus((index + 1) % count);
+		case ArrowLeft -> focus((index + count - 1) % count);
+		case Character -> {
+			char c = key.getCharacter();
+			if (c >= '1' && c <= '9') {
+				focus(c - '1');
+			} else if (c == 'n') {
+				focus((index + 1) % count);
+			} else if (c == 'p') {
+				focus((index + count - 1) % count);
+			}
+		}
+		default -> {
+			// not a command, dropped like in tmux
+		}
+		}
+	}
+
+	private void focus(int index) {
+		if (index < terminals.size()) {
+			focus(terminals.get(index));
+		}
+	}
+
+	private void focus(VirtualTerminal virtual) {
+		if (focused != virtual) {
+			focused = virtual;
+			relayout();
+		}
+	}
+
+	/**
+	 * Passes a mouse event to the terminal under the pointer, relative to its
+	 * region. Pressing a button on a terminal or its title focuses it.
+	 */
+	private void mouse(MouseAction action) {
+		TerminalPosition position = action.getPosition();
+		for (VirtualTerminal virtual : terminals) {
+			Region region = virtual.region();
+			if (region == null) {
+				continue;
+			}
+			if (region.isTitle(position.getColumn(), position.getRow())) {
+				if (action.isMouseDown()) {
+					focus(virtual);
+				}
+				return;
+			}
+			if (region.contains(position.getRow())) {
+				if (action.isMouseDown()) {
+					focus(virtual);
+				}
+				virtual.input(new MouseAction(action.getActionType(), action.getButton(),
+						new TerminalPosition(position.getColumn(), position.getRow() - region.top())));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Where a virtual terminal is shown: its screen rows and the columns of its
+	 * label in the title row.
+	 */
+	record Region(int top, int rows, boolean shown, int titleRow, int labelStart, int labelEnd) {
+
+		boolean contains(int row) {
+			return shown && row >= top && row < top + rows;
+		}
+
+		boolean isTitle(int column, int row) {
+			return row == titleRow && column >= labelStart && column < labelEnd;
+		}
+	}
+}
@@ -0,0 +1,473 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import static org.eclipse.osgi.technology.console.ui.jline.PackedScreen.DEFAULT_STYLE;
+import static org.eclipse.osgi.technology.console.ui.jline.PackedScreen.PADDING;
+import static org.eclipse.osgi.technology.console.ui.jline.PackedScreen.WIDE;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.osgi.technology.console.ui.jline.TerminalMultiplexer.Region;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.Scrollable;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.terminal.AbstractTerminal;
+import com.googlecode.lanterna.terminal.Terminal;
+
+/**
+ * A {@link Terminal} that is one tab or region of a {@link TerminalMultiplexer}.
+ *
+ * <p>
+ * Output goes into a cell buffer in the format of {@link PackedScreen}
+ * instead of a byte stream, and {@link #flush()} asks the multiplexer for a
+ * frame, which copies the rows changed since the last one. Scrolls are
+ * repeated on the physical terminal while they can be. Input is whatever the
+ * multiplexer routes here; private mode only clears the buffer, the
+ * multiplexer keeps the physical terminal in it.
+ * </p>
+ *
+ * <p>
+ * As a service, every bundle gets its own instance, titled with the bundle's
+ * symbolic name.
+ * </p>
+ */
+@Component(scope = ServiceScope.BUNDLE, service = Terminal.class, property = {
+		TerminalMultiplexer.MULTIPLEXED + "=true", "service.ranking:Integer=100" })
+public class VirtualTerminal extends AbstractTerminal implements Scrollable {
+
+	private static final int TAB_WIDTH = 8;
+
+	private final TerminalMultiplexer multiplexer;
+	private final String title;
+	private final LinkedBlockingQueue<KeyStroke> input = new LinkedBlockingQueue<>();
+
+	private volatile Region region;
+	private volatile boolean closed;
+
+	// guarded by this
+	private TerminalSize size = TerminalSize.ZERO;
+	private int columns;
+	private int rows;
+	private int[] cells = new int[0];
+	private long[] styles = new long[0];
+	private int cursorColumn;
+	private int cursorRow;
+	private boolean cursorVisible = true;
+	private char pendingHighSurrogate;
+
+	private TextColor foreground = TextColor.ANSI.DEFAULT;
+	private TextColor background = TextColor.ANSI.DEFAULT;
+	private int modifiers;
+	private long style = DEFAULT_STYLE;
+
+	// rows changed since the last frame, empty if dirtyTop > dirtyBottom
+	private int dirtyTop = Integer.MAX_VALUE;
+	private int dirtyBottom = -1;
+	private boolean bell;
+
+	// pending scroll that the physical terminal can repeat, like in PackedScreen
+	private int[] scrollHint;
+	private boolean scrollHintBroken;
+
+	@Activate
+	public VirtualTerminal(@Reference TerminalMultiplexer multiplexer, ComponentContext context) {
+		this(multiplexer, context.getUsingBundle().getSymbolicName());
+	}
+
+	VirtualTerminal(TerminalMultiplexer multiplexer, String title) {
+		this.multiplexer = multiplexer;
+		this.title = title;
+		multiplexer.attach(this);
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Moves the terminal to a new region, and resizes it unless it is hidden.
+	 * Returns whether the size changed, in which case the resize listeners are
+	 * to be notified with {@link #notifyResized()} once all terminals are
+	 * placed.
+	 */
+	synchronized boolean place(Region newRegion, TerminalSize newSize) {
+		region = newRegion;
+		boolean resized = (newRegion.shown() || rows == 0) && !newSize.equals(size);
+		if (resized) {
+			resize(newSize);
+		}
+		// the screen below was cleared
+		markDirty(0, rows - 1);
+		scrollHint = null;
+		scrollHintBroken = true;
+		return resized;
+	}
+
+	private void resize(TerminalSize newSize) {
+		int[] oldCells = cells;
+		long[] oldStyles = styles;
+		int oldColumns = columns;
+		int oldRows = rows;
+
+		size = newSize;
+		columns = newSize.getColumns();
+		rows = newSize.getRows();
+		cells = new int[columns * rows];
+		styles = new long[columns * rows];
+		Arrays.fill(cells, ' ');
+		Arrays.fill(styles, DEFAULT_STYLE);
+
+		// keep the bottom rows, where a shell-like application has its cursor
+		int shift = Math.max(0, cursorRow + 1 - rows);
+		int keepColumns = Math.min(oldColumns, columns);
+		for (int row = 0; row < Math.min(oldRows - shift, rows); row++) {
+			System.arraycopy(oldCells, (row + shift) * oldColumns, cells, row * columns, keepColumns);
+			System.arraycopy(oldStyles, (row + shift) * oldColumns, styles, row * columns, keepColumns);
+		}
+		cursorRow -= shift;
+		cursorColumn = Math.min(cursorColumn, columns);
+		dirtyTop = 0;
+		dirtyBottom = rows - 1;
+	}
+
+	void notifyResized() {
+		TerminalSize current;
+		synchronized (this) {
+			current = size;
+		}
+		onResized(current);
+	}
+
+	Region region() {
+		return region;
+	}
+
+	/**
+	 * Copies the rows changed since the last frame into the multiplexer's
+	 * screen, if the terminal is shown. Returns whether the bell was rung.
+	 */
+	synchronized boolean render(PackedScreen screen) {
+		Region current = region;
+		if (current != null && current.shown()) {
+			int top = current.top();
+			if (scrollHint != null) {
+				screen.scrollLines(top + scrollHint[0], top + scrollHint[1], scrollHint[2]);
+			}
+			for (int row = dirtyTop; row <= dirtyBottom; row++) {
+				screen.putCells(0, top + row, cells, styles, row * columns, columns);
+			}
+		}
+		dirtyTop = Integer.MAX_VALUE;
+		dirtyBottom = -1;
+		scrollHint = null;
+		scrollHintBroken = false;
+		boolean rang = bell;
+		bell = false;
+		return rang;
+	}
+
+	/**
+	 * Returns the cursor position on the physical screen, or {@code null} if
+	 * the cursor is hidden.
+	 */
+	synchronized TerminalPosition screenCursor() {
+		Region current = region;
+		if (!cursorVisible || current == null || !current.shown() || columns == 0) {
+			return null;
+		}
+		return new TerminalPosition(Math.min(cursorColumn, columns - 1), current.top() + cursorRow);
+	}
+
+	void input(KeyStroke key) {
+		input.offer(key);
+	}
+
+	private void markDirty(int top, int bottom) {
+		dirtyTop = Math.min(dirtyTop, top);
+		dirtyBottom = Math.max(dirtyBottom, bottom);
+	}
+
+	@Override
+	public KeyStroke pollInput() throws IOException {
+		return input.poll();
+	}
+
+	@Override
+	public KeyStroke readInput() throws IOException {
+		try {
+			return input.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * Only clears the buffer, the multiplexer keeps the physical terminal in
+	 * private mode.
+	 */
+	@Override
+	public void enterPrivateMode() throws IOException {
+		clearScreen();
+	}
+
+	@Override
+	public synchronized void exitPrivateMode() throws IOException {
+		resetColorAndSGR();
+		cursorVisible = true;
+		clearScreen();
+	}
+
+	@Override
+	public synchronized void clearScreen() throws IOException {
+		Arrays.fill(cells, ' ');
+		Arrays.fill(styles, DEFAULT_STYLE);
+		cursorColumn = 0;
+		cursorRow = 0;
+		markDirty(0, rows - 1);
+		scrollHint = null;
+		scrollHintBroken = true;
+	}
+
+	@Override
+	public synchronized void setCursorPosition(int x, int y) throws IOException {
+		cursorColumn = Math.max(0, Math.min(x, columns - 1));
+		cursorRow = Math.max(0, Math.min(y, rows - 1));
+	}
+
+	@Override
+	public void setCursorPosition(TerminalPosition position) throws IOException {
+		setCursorPosition(position.getColumn(), position.getRow());
+	}
+
+	@Override
+	public synchronized TerminalPosition getCursorPosition() throws IOException {
+		return new TerminalPosition(Math.min(cursorColumn, Math.max(0, columns - 1)), cursorRow);
+	}
+
+	@Override
+	public synchronized void setCursorVisible(boolean visible) throws IOException {
+		cursorVisible = visible;
+	}
+
+	/**
+	 * Writes at the cursor like a terminal with auto-wrap: a character in the
+	 * last column leaves the cursor there until the next one wraps, and a line
+	 * feed in the last row scrolls. {@code '\n'} also returns the cursor to the
+	 * first column. Combining characters are dropped.
+	 */
+	@Override
+	public synchronized void putCharacter(char c) throws IOException {
+		if (Character.isHighSurrogate(c)) {
+			pendingHighSurrogate = c;
+			return;
+		}
+		int codePoint = pendingHighSurrogate != 0 && Character.isLowSurrogate(c)
+				? Character.toCodePoint(pendingHighSurrogate, c)
+				: c;
+		pendingHighSurrogate = 0;
+		if (rows == 0) {
+			return;
+		}
+		switch (codePoint) {
+		case '\n' -> {
+			cursorColumn = 0;
+			lineFeed();
+		}
+		case '\r' -> cursorColumn = 0;
+		case '\b' -> cursorColumn = Math.max(0, Math.min(cursorColumn, columns - 1) - 1);
+		case '\t' -> cursorColumn = Math.min(columns - 1, (cursorColumn / TAB_WIDTH + 1) * TAB_WIDTH);
+		case 0x07 -> bell = true;
+		default -> print(codePoint);
+		}
+	}
+
+	@Override
+	public synchronized void putString(String string) throws IOException {
+		for (int i = 0; i < string.length(); i++) {
+			putCharacter(string.charAt(i));
+		}
+	}
+
+	private void print(int codePoint) {
+		int width = CharacterWidths.of(codePoint);
+		if (width <= 0 || width > columns) {
+			return;
+		}
+		if (cursorColumn + width > columns) {
+			cursorColumn = 0;
+			lineFeed();
+		}
+		int i = cursorRow * columns + cursorColumn;
+		unlink(i, cursorColumn);
+		cells[i] = codePoint;
+		styles[i] = width == 2 ? style | WIDE : style;
+		if (width == 2) {
+			unlink(i + 1, cursorColumn + 1);
+			cells[i + 1] = ' ';
+			styles[i + 1] = style | PADDING;
+		}
+		markDirty(cursorRow, cursorRow);
+		cursorColumn += width;
+	}
+
+	/**
+	 * Blanks the other half of a wide character that is partly overwritten.
+	 */
+	private void unlink(int i, int column) {
+		if ((styles[i] & PADDING) != 0 && column > 0) {
+			cells[i - 1] = ' ';
+			styles[i - 1] &= ~WIDE;
+		}
+		if ((styles[i] & WIDE) != 0 && column + 1 < columns) {
+			styles[i + 1] &= ~PADDING;
+		}
+	}
+
+	private void lineFeed() {
+		if (cursorRow + 1 < rows) {
+			cursorRow++;
+		} else {
+			scrollLines(0, rows - 1, 1);
+		}
+	}
+
+	/**
+	 * Scrolls the buffer. Unless other scrolls intervene, the next frame lets
+	 * the physical terminal scroll the region as well.
+	 */
+	@Override
+	public synchronized void scrollLines(int firstLine, int lastLine, int distance) {
+		int top = Math.max(0, firstLine);
+		int bottom = Math.min(rows - 1, lastLine);
+		if (distance == 0 || bottom < top) {
+			return;
+		}
+		int lines = Math.min(Math.abs(distance), bottom - top + 1);
+		int moved = (bottom - top + 1 - lines) * columns;
+		int blank;
+		if (distance > 0) {
+			System.arraycopy(cells, (top + lines) * columns, cells, top * columns, moved);
+			System.arraycopy(styles, (top + lines) * columns, styles, top * columns, moved);
+			blank = (bottom + 1 - lines) * columns;
+		} else {
+			System.arraycopy(cells, top * columns, cells, (top + lines) * columns, moved);
+			System.arraycopy(styles, top * columns, styles, (top + lines) * columns, moved);
+			blank = top * columns;
+		}
+		Arrays.fill(cells, blank, blank + lines * columns, ' ');
+		Arrays.fill(styles, blank, blank + lines * columns, DEFAULT_STYLE);
+		markDirty(top, bottom);
+
+		if (scrollHintBroken) {
+			return;
+		}
+		if (scrollHint == null) {
+			scrollHint = new int[] { top, bottom, distance };
+		} else if (scrollHint[0] == top && scrollHint[1] == bottom) {
+			scrollHint[2] += distance;
+		} else {
+			scrollHint = null;
+			scrollHintBroken = true;
+		}
+	}
+
+	@Override
+	public synchronized void enableSGR(SGR sgr) throws IOException {
+		modifiers |= 1 << sgr.ordinal();
+		updateStyle();
+	}
+
+	@Override
+	public synchronized void disableSGR(SGR sgr) throws IOException {
+		modifiers &= ~(1 << sgr.ordinal());
+		updateStyle();
+	}
+
+	@Override
+	public synchronized void resetColorAndSGR() throws IOException {
+		foreground = TextColor.ANSI.DEFAULT;
+		background = TextColor.ANSI.DEFAULT;
+		modifiers = 0;
+		style = DEFAULT_STYLE;
+	}
+
+	@Override
+	public synchronized void setForegroundColor(TextColor color) throws IOException {
+		foreground = color;
+		updateStyle();
+	}
+
+	@Override
+	public synchronized void setBackgroundColor(TextColor color) throws IOException {
+		background = color;
+		updateStyle();
+	}
+
+	private void updateStyle() {
+		style = multiplexer.style(foreground, background, modifiers);
+	}
+
+	@Override
+	public synchronized TerminalSize getTerminalSize() throws IOException {
+		return size;
+	}
+
+	@Override
+	public byte[] enquireTerminal(int timeout, TimeUnit timeoutUnit) throws IOException {
+		return multiplexer.enquireTerminal();
+	}
+
+	@Override
+	public synchronized void bell() throws IOException {
+		bell = true;
+		multiplexer.requestFrame();
+	}
+
+	/**
+	 * Requests a frame from the multiplexer, which writes the changes of all
+	 * its terminals together.
+	 */
+	@Override
+	public void flush() throws IOException {
+		multiplexer.requestFrame();
+	}
+
+	@Deactivate
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		multiplexer.detach(this);
+		// wakes up a blocked readInput()
+		input.offer(KeyDecoder.key(KeyType.EOF));
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline.headless;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.osgi.technology.console.ui.jline.JlineAdapterTerminal;
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal.Signal;
+import org.jline.terminal.impl.LineDisciplineTerminal;
+
+/**
+ * A {@link JlineAdapterTerminal} without a tty, for render tests and
+ * performance measurements.
+ *
+ * <p>
+ * The adapter runs on a JLine line-discipline terminal whose output is parsed
+ * by a {@link VtScreen}. Input is injected with {@link #input(byte[])} or
+ * {@link #type(String)} and goes through the same decoding as keyboard input.
+ * Between {@link #startRecording()} and {@link #stopRecording()} all input and
+ * output frames are recorded.
+ * </p>
+ */
+public final class HeadlessTerminal implements Closeable {
+
+	private final LineDisciplineTerminal jline;
+	private final VtScreen screen;
+	private final JlineAdapterTerminal terminal;
+
+	private final Object recordingLock = new Object();
+	private final ByteArrayOutputStream pendingFrame = new ByteArrayOutputStream();
+	private List<SessionRecording.Entry> recording;
+	private long recordingStart;
+
+	public HeadlessTerminal(int columns, int rows) throws IOException {
+		this(columns, rows, Map.of());
+	}
+
+	/**
+	 * @param properties component properties of the adapter, see the constants
+	 *                   of {@link JlineAdapterTerminal}
+	 */
+	public HeadlessTerminal(int columns, int rows, Map<String, Object> properties) throws IOException {
+		this.screen = new VtScreen(columns, rows, this::reply);
+		this.jline = new LineDisciplineTerminal("headless", "xterm-256color", new Tap(), StandardCharsets.UTF_8);
+		this.jline.setSize(new Size(columns, rows));
+		this.terminal = new JlineAdapterTerminal(jline, properties);
+	}
+
+	/**
+	 * Returns the Lanterna terminal to render on.
+	 */
+	public JlineAdapterTerminal terminal() {
+		return terminal;
+	}
+
+	/**
+	 * Returns the screen showing everything the terminal wrote.
+	 */
+	public VtScreen screen() {
+		return screen;
+	}
+
+	/**
+	 * Sends bytes as if they were typed on the keyboard.
+	 */
+	public void input(byte[] bytes) throws IOException {
+		record(true, bytes);
+		jline.processInputBytes(bytes);
+	}
+
+	/**
+	 * Sends text, which may contain escape sequences, as keyboard input.
+	 */
+	public void type(String text) throws IOException {
+		input(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Resizes the screen and signals the resize to the terminal.
+	 */
+	public void resize(int columns, int rows) {
+		screen.resize(columns, rows);
+		jline.setSize(new Size(columns, rows));
+		jline.raise(Signal.WINCH);
+	}
+
+	public void startRecording() {
+		synchronized (recordingLock) {
+			recording = new ArrayList<>();
+			recordingStart = System.nanoTime();
+			pendingFrame.reset();
+		}
+	}
+
+	public SessionRecording stopRecording() {
+		synchronized (recordingLock) {
+			List<SessionRecording.Entry> entries = recording == null ? List.of() : recording;
+			recording = null;
+			return new SessionRecording(entries);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		terminal.close();
+	}
+
+	private void reply(byte[] bytes) {
+		try {
+			// answers to queries are input, but not recorded: replaying the
+			// output reproduces them
+			jline.processInputBytes(bytes);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void record(boolean input, byte[] bytes) {
+		synchronized (recordingLock) {
+			if (recording != null) {
+				recording.add(new SessionRecording.Entry(System.nanoTime() - recordingStart, input, bytes.clone()));
+			}
+		}
+	}
+
+	/**
+	 * The terminal's output: parsed by the screen and, while recording, collected
+	 * into one entry per frame.
+	 */
+	private final class Tap extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			screen.write(b);
+			synchronized (recordingLock) {
+				if (recording != null) {
+					pendingFrame.write(b);
+				}
+			}
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			screen.write(bytes, offset, length);
+			synchronized (recordingLock) {
+				if (recording != null) {
+					pendingFrame.write(bytes, offset, length);
+				}
+			}
+		}
+
+		@Override
+		public void flush() {
+			screen.flush();
+			synchronized (recordingLock) {
+				if (recording != null && pendingFrame.size() > 0) {
+					recording.add(new SessionRecording.Entry(System.nanoTime() - recordingStart, false,
+							pendingFrame.toByteArray()));
+					pendingFrame.reset();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline.headless;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A recorded headless session: the input sent to the terminal and the output
+ * frames it wrote, in order and with their time offsets.
+ *
+ * <p>
+ * Recordings can be stored with {@link #write(OutputStream)} and loaded with
+ * {@link #read(InputStream)}. Replaying the output into a fresh
+ * {@link VtScreen} reproduces the screen deterministically. Replaying the input
+ * drives a new session the same way the recorded one was driven.
+ * </p>
+ */
+public final class SessionRecording {
+
+	private static final int MAGIC = 0x56545231; // "VTR1"
+
+	/**
+	 * One recorded chunk.
+	 *
+	 * @param nanos offset from the start of the recording
+	 * @param input {@code true} for input sent to the terminal, {@code false}
+	 *              for an output frame
+	 * @param data  the bytes
+	 */
+	public record Entry(long nanos, boolean input, byte[] data) {
+	}
+
+	private final List<Entry> entries;
+
+	SessionRecording(List<Entry> entries) {
+		this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+	}
+
+	public List<Entry> entries() {
+		return entries;
+	}
+
+	/**
+	 * Feeds all output frames into {@code screen}, flushing after each.
+	 */
+	public void replayOutput(VtScreen screen) {
+		for (Entry entry : entries) {
+			if (!entry.input()) {
+				screen.write(entry.data(), 0, entry.data().length);
+				screen.flush();
+			}
+		}
+	}
+
+	/**
+	 * Sends all recorded input to {@code terminal}.
+	 *
+	 * @param realTime whether to keep the recorded pauses between inputs
+	 */
+	public void replayInput(HeadlessTerminal terminal, boolean realTime) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		for (Entry entry : entries) {
+			if (!entry.input()) {
+				continue;
+			}
+			if (realTime) {
+				long wait = entry.nanos() - (System.nanoTime() - start);
+				if (wait > 0) {
+					TimeUnit.NANOSECONDS.sleep(wait);
+				}
+			}
+			terminal.input(entry.data());
+		}
+	}
+
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(entries.size());
+		for (Entry entry : entries) {
+			data.writeLong(entry.nanos());
+			data.writeBoolean(entry.input());
+			data.writeInt(entry.data().length);
+			data.write(entry.data());
+		}
+		data.flush();
+	}
+
+	public static SessionRecording read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a session recording");
+		}
+		int count = data.readInt();
+		List<Entry> entries = new ArrayList<>(Math.min(count, 1024));
+		for (int i = 0; i < count; i++) {
+			long nanos = data.readLong();
+			boolean input = data.readBoolean();
+			int length = data.readInt();
+			if (length < 0) {
+				throw new EOFException("Corrupt session recording");
+			}
+			byte[] bytes = new byte[length];
+			data.readFully(bytes);
+			entries.add(new Entry(nanos, input, bytes));
+		}
+		return new SessionRecording(entries);
+	}
+}
@@ -0,0 +1,746 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline.headless;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.jline.utils.WCWidth;
+
+import com.googlecode.lanterna.SGR;
+
+/**
+ * In-memory VT screen that parses the bytes written to it into a cell grid.
+ *
+ * <p>
+ * It understands the subset of xterm sequences that terminal UIs emit: cursor
+ * movement and addressing, erasing (ED, EL, ECH), REP, scroll regions and
+ * scrolling, SGR attributes with 16, 256 and RGB colors, private modes and
+ * DECRQM mode queries, which it answers through the reply channel. Text is
+ * decoded as UTF-8 and laid out with JLine's character widths, with the
+ * usual pending wrap at the right margin.
+ * </p>
+ *
+ * <p>
+ * Output between two {@link #flush()} calls is one frame. For each frame the
+ * number of bytes, escape sequences and printed characters is recorded in a
+ * {@link FrameStatistics}.
+ * </p>
+ *
+ * <p>
+ * Colors are reported as {@link #DEFAULT_COLOR}, an index {@code 0..255}, or
+ * {@code RGB_FLAG | 0xRRGGBB}.
+ * </p>
+ */
+public final class VtScreen extends OutputStream {
+
+	public static final int DEFAULT_COLOR = -1;
+	public static final int RGB_FLAG = 0x1000000;
+
+	/**
+	 * Counters of one frame.
+	 *
+	 * @param bytes     bytes written
+	 * @param sequences escape sequences parsed
+	 * @param printed   characters printed to cells
+	 */
+	public record FrameStatistics(int bytes, int sequences, int printed) {
+	}
+
+	private static final int GROUND = 0;
+	private static final int ESCAPE = 1;
+	private static final int CSI = 2;
+	private static final int OSC = 3;
+	private static final int OSC_ESCAPE = 4;
+
+	private static final int MAX_PARAMETERS = 16;
+	private static final SGR[] SGRS = SGR.values();
+
+	private final Consumer<byte[]> replies;
+
+	private int columns;
+	private int rows;
+	private int[] cells;
+	private int[] foregrounds;
+	private int[] backgrounds;
+	private int[] attributes;
+
+	private int column;
+	private int row;
+	private int savedColumn;
+	private int savedRow;
+	private int top;
+	private int bottom;
+	private int foreground = DEFAULT_COLOR;
+	private int background = DEFAULT_COLOR;
+	private int attribute;
+	private int lastPrinted = ' ';
+	private final Set<Integer> modes = new HashSet<>();
+
+	private int state = GROUND;
+	private final int[] parameters = new int[MAX_PARAMETERS];
+	private int parameterCount;
+	private boolean parameterStarted;
+	private char marker;
+	private char intermediate;
+	private int utf8CodePoint;
+	private int utf8Remaining;
+
+	private int frameBytes;
+	private int frameSequences;
+	private int framePrinted;
+	private final List<FrameStatistics> frames = new ArrayList<>();
+
+	public VtScreen(int columns, int rows) {
+		this(columns, rows, reply -> {
+		});
+	}
+
+	/**
+	 * @param replies receives the terminal's answers to queries, which a real
+	 *                terminal would send as input
+	 */
+	public VtScreen(int columns, int rows, Consumer<byte[]> replies) {
+		this.replies = replies;
+		this.modes.add(25);
+		resize(columns, rows);
+	}
+
+	/**
+	 * Changes the size, keeping the top left part of the content.
+	 */
+	public synchronized void resize(int columns, int rows) {
+		int[] oldCells = cells;
+		int[] oldForegrounds = foregrounds;
+		int[] oldBackgrounds = backgrounds;
+		int[] oldAttributes = attributes;
+		int oldColumns = this.columns;
+		int oldRows = this.rows;
+
+		this.columns = columns;
+		this.rows = rows;
+		cells = new int[columns * rows];
+		foregrounds = new int[columns * rows];
+		backgrounds = new int[columns * rows];
+		attributes = new int[columns * rows];
+		Arrays.fill(cells, ' ');
+		Arrays.fill(foregrounds, DEFAULT_COLOR);
+		Arrays.fill(backgrounds, DEFAULT_COLOR);
+		if (oldCells != null) {
+			for (int r = 0; r < Math.min(rows, oldRows); r++) {
+				int length = Math.min(columns, oldColumns);
+				System.arraycopy(oldCells, r * oldColumns, cells, r * columns, length);
+				System.arraycopy(oldForegrounds, r * oldColumns, foregrounds, r * columns, length);
+				System.arraycopy(oldBackgrounds, r * oldColumns, backgrounds, r * columns, length);
+				System.arraycopy(oldAttributes, r * oldColumns, attributes, r * columns, length);
+			}
+		}
+		top = 0;
+		bottom = rows - 1;
+		column = Math.min(column, columns - 1);
+		row = Math.min(row, rows - 1);
+	}
+
+	@Override
+	public synchronized void write(int b) {
+		frameBytes++;
+		process(b & 0xFF);
+	}
+
+	@Override
+	public synchronized void write(byte[] bytes, int offset, int length) {
+		frameBytes += length;
+		for (int i = offset; i < offset + length; i++) {
+			process(bytes[i] & 0xFF);
+		}
+	}
+
+	/**
+	 * Ends the current frame.
+	 */
+	@Override
+	public synchronized void flush() {
+		if (frameBytes > 0) {
+			frames.add(new FrameStatistics(frameBytes, frameSequences, framePrinted));
+			frameBytes = 0;
+			frameSequences = 0;
+			framePrinted = 0;
+		}
+	}
+
+	/**
+	 * Returns and clears the statistics of the frames completed so far.
+	 */
+	public synchronized List<FrameStatistics> takeFrames() {
+		List<FrameStatistics> result = new ArrayList<>(frames);
+		frames.clear();
+		return result;
+	}
+
+	public synchronized int columns() {
+		return columns;
+	}
+
+	public synchronized int rows() {
+		return rows;
+	}
+
+	public synchronized int cursorColumn() {
+		return Math.min(column, columns - 1);
+	}
+
+	public synchronized int cursorRow() {
+		return row;
+	}
+
+	public synchronized boolean isCursorVisible() {
+		return modes.contains(25);
+	}
+
+	/**
+	 * Returns whether the DEC private mode {@code mode} is set.
+	 */
+	public synchronized boolean isPrivateModeSet(int mode) {
+		return modes.contains(mode);
+	}
+
+	/**
+	 * Returns the code point in the cell, {@code 0} for the right half of a
+	 * wide character.
+	 */
+	public synchronized int codePointAt(int column, int row) {
+		return cells[index(column, row)];
+	}
+
+	public synchronized int foregroundAt(int column, int row) {
+		return foregrounds[index(column, row)];
+	}
+
+	public synchronized int backgroundAt(int column, int row) {
+		return backgrounds[index(column, row)];
+	}
+
+	public synchronized Set<SGR> attributesAt(int column, int row) {
+		int bits = attributes[index(column, row)];
+		EnumSet<SGR> result = EnumSet.noneOf(SGR.class);
+		for (SGR sgr : SGRS) {
+			if ((bits & 1 << sgr.ordinal()) != 0) {
+				result.add(sgr);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the text of a row, with trailing blanks removed.
+	 */
+	public synchronized String line(int row) {
+		StringBuilder line = new StringBuilder(columns);
+		for (int c = 0; c < columns; c++) {
+			int codePoint = cells[row * columns + c];
+			if (codePoint != 0) {
+				line.appendCodePoint(codePoint);
+			}
+		}
+		int end = line.length();
+		while (end > 0 && line.charAt(end - 1) == ' ') {
+			end--;
+		}
+		line.setLength(end);
+		return line.toString();
+	}
+
+	/**
+	 * Returns all rows, separated by {@code \n}.
+	 */
+	public synchronized String text() {
+		StringBuilder text = new StringBuilder();
+		for (int r = 0; r < rows; r++) {
+			if (r > 0) {
+				text.append('\n');
+			}
+			text.append(line(r));
+		}
+		return text.toString();
+	}
+
+	private int index(int column, int row) {
+		if (column < 0 || column >= columns || row < 0 || row >= rows) {
+			throw new IndexOutOfBoundsException(column + "," + row);
+		}
+		return row * columns + column;
+	}
+
+	private void process(int b) {
+		switch (state) {
+		case GROUND:
+			ground(b);
+			break;
+		case ESCAPE:
+			escape(b);
+			break;
+		case CSI:
+			csi(b);
+			break;
+		case OSC:
+			if (b == 0x07) {
+				endSequence();
+			} else if (b == 0x1B) {
+				state = OSC_ESCAPE;
+			}
+			break;
+		case OSC_ESCAPE:
+			// ST is ESC \, anything else aborts the string just the same
+			endSequence();
+			break;
+		default:
+			state = GROUND;
+		}
+	}
+
+	private void ground(int b) {
+		if (utf8Remaining > 0) {
+			if ((b & 0xC0) == 0x80) {
+				utf8CodePoint = utf8CodePoint << 6 | b & 0x3F;
+				if (--utf8Remaining == 0) {
+					print(utf8CodePoint);
+				}
+				return;
+			}
+			utf8Remaining = 0;
+			print(0xFFFD);
+		}
+		if (b == 0x1B) {
+			state = ESCAPE;
+		} else if (b < 0x20) {
+			control(b);
+		} else if (b < 0x7F) {
+			print(b);
+		} else if (b >= 0xF0) {
+			utf8CodePoint = b & 0x07;
+			utf8Remaining = 3;
+		} else if (b >= 0xE0) {
+			utf8CodePoint = b & 0x0F;
+			utf8Remaining = 2;
+		} else if (b >= 0xC0) {
+			utf8CodePoint = b & 0x1F;
+			utf8Remaining = 1;
+		}
+	}
+
+	private void control(int b) {
+		switch (b) {
+		case '\r':
+			column = 0;
+			break;
+		case '\n':
+			lineFeed();
+			break;
+		case '\b':
+			column = Math.max(0, Math.min(column, columns - 1) - 1);
+			break;
+		case '\t':
+			column = Math.min(columns - 1, (column / 8 + 1) * 8);
+			break;
+		default:
+			// BEL and other controls do not change the grid
+		}
+	}
+
+	private void escape(int b) {
+		switch (b) {
+		case '[':
+			state = CSI;
+			parameterCount = 0;
+			parameterStarted = false;
+			marker = 0;
+			intermediate = 0;
+			return;
+		case ']':
+			state = OSC;
+			return;
+		case '7':
+			savedColumn = column;
+			savedRow = row;
+			break;
+		case '8':
+			column = savedColumn;
+			row = savedRow;
+			break;
+		case 'M':
+			if (row == top) {
+				scrollDown(1);
+			} else if (row > 0) {
+				row--;
+			}
+			break;
+		case 'c':
+			resetAttributes();
+			erase(0, cells.length);
+			column = 0;
+			row = 0;
+			break;
+		default:
+			// unsupported escape
+		}
+		endSequence();
+	}
+
+	private void csi(int b) {
+		if (b >= '0' && b <= '9') {
+			if (!parameterStarted) {
+				parameterStarted = true;
+				if (parameterCount < MAX_PARAMETERS) {
+					parameters[parameterCount++] = 0;
+				}
+			}
+			int i = parameterCount - 1;
+			parameters[i] = Math.min(parameters[i] * 10 + (b - '0'), 99_999);
+		} else if (b == ';' || b == ':') {
+			if (!parameterStarted && parameterCount < MAX_PARAMETERS) {
+				parameters[parameterCount++] = -1;
+			}
+			parameterStarted = false;
+		} else if (b >= '<' && b <= '?') {
+			marker = (char) b;
+		} else if (b >= 0x20 && b <= 0x2F) {
+			intermediate = (char) b;
+		} else if (b >= 0x40 && b <= 0x7E) {
+			command((char) b);
+			endSequence();
+		} else {
+			endSequence();
+		}
+	}
+
+	private void endSequence() {
+		state = GROUND;
+		frameSequences++;
+	}
+
+	/**
+	 * Returns parameter {@code i}, or {@code defaultValue} if it is missing or
+	 * zero where zero means default.
+	 */
+	private int parameter(int i, int defaultValue) {
+		if (i >= parameterCount || parameters[i] < 0) {
+			return defaultValue;
+		}
+		return parameters[i] == 0 && defaultValue > 0 ? defaultValue : parameters[i];
+	}
+
+	private void command(char command) {
+		if (marker == '?') {
+			privateCommand(command);
+			return;
+		}
+		int n = parameter(0, 1);
+		switch (command) {
+		case 'H':
+		case 'f':
+			row = clamp(parameter(0, 1) - 1, rows);
+			column = clamp(parameter(1, 1) - 1, columns);
+			break;
+		case 'A':
+			row = Math.max(row < top ? 0 : top, row - n);
+			column = Math.min(column, columns - 1);
+			break;
+		case 'B':
+			row = Math.min(row > bottom ? rows - 1 : bottom, row + n);
+			column = Math.min(column, columns - 1);
+			break;
+		case 'C':
+			column = Math.min(columns - 1, column + n);
+			break;
+		case 'D':
+			column = Math.max(0, Math.min(column, columns - 1) - n);
+			break;
+		case 'G':
+			column = clamp(n - 1, columns);
+			break;
+		case 'd':
+			row = clamp(n - 1, rows);
+			break;
+		case 'J':
+			eraseDisplay(parameter(0, 0));
+			break;
+		case 'K':
+			eraseLine(parameter(0, 0));
+			break;
+		case 'X': {
+			int start = row * columns + Math.min(column, columns - 1);
+			erase(start, Math.min(start + n, (row + 1) * columns));
+			break;
+		}
+		case 'b':
+			for (int i = 0; i < n; i++) {
+				print(lastPrinted);
+			}
+			break;
+		case 'S':
+			scrollUp(n);
+			break;
+		case 'T':
+			scrollDown(n);
+			break;
+		case 'L':
+		case 'M':
+			// IL / DL, only within the scroll region
+			if (row >= top && row <= bottom) {
+				if (command == 'L') {
+					scrollDown(row, n);
+				} else {
+					scrollUp(row, n);
+				}
+				column = 0;
+			}
+			break;
+		case 'r':
+			top = clamp(parameter(0, 1) - 1, rows);
+			bottom = clamp(parameter(1, rows) - 1, rows);
+			if (bottom <= top) {
+				top = 0;
+				bottom = rows - 1;
+			}
+			row = 0;
+			column = 0;
+			break;
+		case 'm':
+			sgr();
+			break;
+		default:
+			// unsupported control sequence
+		}
+	}
+
+	private void privateCommand(char command) {
+		switch (command) {
+		case 'h':
+		case 'l':
+			for (int i = 0; i < parameterCount; i++) {
+				int mode = parameters[i];
+				if (command == 'h') {
+					modes.add(mode);
+				} else {
+					modes.remove(mode);
+				}
+				if (mode == 1049 || mode == 47 || mode == 1047) {
+					erase(0, cells.length);
+				}
+			}
+			break;
+		case 'p':
+			if (intermediate == '$') {
+				// DECRQM: report set (1) or reset (2) for the modes we track
+				int mode = parameter(0, 0);
+				int value = modes.contains(mode) ? 1 : 2;
+				replies.accept(("\u001B[?" + mode + ";" + value + "$y").getBytes(StandardCharsets.US_ASCII));
+			}
+			break;
+		default:
+			// unsupported private sequence
+		}
+	}
+
+	private void sgr() {
+		if (parameterCount == 0) {
+			resetAttributes();
+			return;
+		}
+		for (int i = 0; i < parameterCount; i++) {
+			int p = Math.max(0, parameters[i]);
+			switch (p) {
+			case 0 -> resetAttributes();
+			case 1 -> set(SGR.BOLD, true);
+			case 3 -> set(SGR.ITALIC, true);
+			case 4 -> set(SGR.UNDERLINE, true);
+			case 5 -> set(SGR.BLINK, true);
+			case 7 -> set(SGR.REVERSE, true);
+			case 9 -> set(SGR.CROSSED_OUT, true);
+			case 20 -> set(SGR.FRAKTUR, true);
+			case 51 -> set(SGR.BORDERED, true);
+			case 52 -> set(SGR.CIRCLED, true);
+			case 22 -> set(SGR.BOLD, false);
+			case 23 -> {
+				set(SGR.ITALIC, false);
+				set(SGR.FRAKTUR, false);
+			}
+			case 24 -> set(SGR.UNDERLINE, false);
+			case 25 -> set(SGR.BLINK, false);
+			case 27 -> set(SGR.REVERSE, false);
+			case 29 -> set(SGR.CROSSED_OUT, false);
+			case 54 -> {
+				set(SGR.BORDERED, false);
+				set(SGR.CIRCLED, false);
+			}
+			case 39 -> foreground = DEFAULT_COLOR;
+			case 49 -> background = DEFAULT_COLOR;
+			case 38, 48 -> {
+				int color = DEFAULT_COLOR;
+				if (parameter(i + 1, 0) == 5) {
+					color = parameter(i + 2, 0) & 0xFF;
+					i += 2;
+				} else if (parameter(i + 1, 0) == 2) {
+					color = RGB_FLAG | (parameter(i + 2, 0) & 0xFF) << 16 | (parameter(i + 3, 0) & 0xFF) << 8
+							| parameter(i + 4, 0) & 0xFF;
+					i += 4;
+				}
+				if (p == 38) {
+					foreground = color;
+				} else {
+					background = color;
+				}
+			}
+			default -> {
+				if (p >= 30 && p <= 37) {
+					foreground = p - 30;
+				} else if (p >= 40 && p <= 47) {
+					background = p - 40;
+				} else if (p >= 90 && p <= 97) {
+					foreground = p - 90 + 8;
+				} else if (p >= 100 && p <= 107) {
+					background = p - 100 + 8;
+				}
+			}
+			}
+		}
+	}
+
+	private void set(SGR sgr, boolean on) {
+		if (on) {
+			attribute |= 1 << sgr.ordinal();
+		} else {
+			attribute &= ~(1 << sgr.ordinal());
+		}
+	}
+
+	private void resetAttributes() {
+		foreground = DEFAULT_COLOR;
+		background = DEFAULT_COLOR;
+		attribute = 0;
+	}
+
+	private void print(int codePoint) {
+		int width = WCWidth.wcwidth(codePoint);
+		if (width <= 0) {
+			// combining characters and controls do not occupy cells here
+			return;
+		}
+		if (column + width > columns) {
+			// pending wrap
+			column = 0;
+			lineFeed();
+		}
+		int i = row * columns + column;
+		put(i, codePoint);
+		if (width == 2 && column + 1 < columns) {
+			put(i + 1, 0);
+		}
+		column += width;
+		lastPrinted = codePoint;
+		framePrinted++;
+	}
+
+	private void put(int i, int codePoint) {
+		cells[i] = codePoint;
+		foregrounds[i] = foreground;
+		backgrounds[i] = background;
+		attributes[i] = attribute;
+	}
+
+	private void lineFeed() {
+		if (row == bottom) {
+			scrollUp(1);
+		} else if (row < rows - 1) {
+			row++;
+		}
+	}
+
+	private void scrollUp(int n) {
+		scrollUp(top, n);
+	}
+
+	private void scrollDown(int n) {
+		scrollDown(top, n);
+	}
+
+	/**
+	 * Scrolls the rows from {@code first} to the bottom of the scroll region.
+	 */
+	private void scrollUp(int first, int n) {
+		n = Math.min(n, bottom - first + 1);
+		int from = (first + n) * columns;
+		int to = first * columns;
+		int length = (bottom + 1 - first - n) * columns;
+		shift(from, to, length);
+		erase((bottom + 1 - n) * columns, (bottom + 1) * columns);
+	}
+
+	private void scrollDown(int first, int n) {
+		n = Math.min(n, bottom - first + 1);
+		int from = first * columns;
+		int to = (first + n) * columns;
+		int length = (bottom + 1 - first - n) * columns;
+		shift(from, to, length);
+		erase(first * columns, (first + n) * columns);
+	}
+
+	private void shift(int from, int to, int length) {
+		System.arraycopy(cells, from, cells, to, length);
+		System.arraycopy(foregrounds, from, foregrounds, to, length);
+		System.arraycopy(backgrounds, from, backgrounds, to, length);
+		System.arraycopy(attributes, from, attributes, to, length);
+	}
+
+	private void eraseDisplay(int mode) {
+		int cursor = row * columns + Math.min(column, columns - 1);
+		switch (mode) {
+		case 0 -> erase(cursor, cells.length);
+		case 1 -> erase(0, cursor + 1);
+		default -> erase(0, cells.length);
+		}
+	}
+
+	private void eraseLine(int mode) {
+		int start = row * columns;
+		int cursor = start + Math.min(column, columns - 1);
+		switch (mode) {
+		case 0 -> erase(cursor, start + columns);
+		case 1 -> erase(start, cursor + 1);
+		default -> erase(start, start + columns);
+		}
+	}
+
+	/**
+	 * Blanks cells {@code [from, to)} with the current background, as xterm
+	 * does (background color erase).
+	 */
+	private void erase(int from, int to) {
+		Arrays.fill(cells, from, to, ' ');
+		Arrays.fill(foregrounds, from, to, DEFAULT_COLOR);
+		Arrays.fill(backgrounds, from, to, background);
+		Arrays.fill(attributes, from, to, 0);
+	}
+
+	private static int clamp(int value, int limit) {
+		return Math.max(0, Math.min(value, limit - 1));
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.input.MouseAction;
+import com.googlecode.lanterna.input.MouseActionType;
+
+public class KeyDecoderTest {
+
+	private final KeyDecoder decoder = new KeyDecoder(false, null);
+	private final List<KeyStroke> keys = new ArrayList<>();
+
+	/**
+	 * Decodes {@code input} and returns how many characters were consumed.
+	 */
+	private int decode(KeyDecoder decoder, String input) {
+		return decoder.decode(input.toCharArray(), 0, input.length(), keys::add);
+	}
+
+	private void timeout(String pending) {
+		decoder.timeout(pending.toCharArray(), 0, pending.length(), keys::add);
+	}
+
+	private KeyStroke single() {
+		assertEquals(1, keys.size(), keys.toString());
+		KeyStroke key = keys.get(0);
+		keys.clear();
+		return key;
+	}
+
+	private static void assertKey(KeyType type, boolean ctrl, boolean alt, boolean shift, KeyStroke key) {
+		assertEquals(type, key.getKeyType());
+		assertEquals(ctrl, key.isCtrlDown(), "ctrl");
+		assertEquals(alt, key.isAltDown(), "alt");
+		assertEquals(shift, key.isShiftDown(), "shift");
+	}
+
+	private static void assertMouse(MouseActionType type, int button, int column, int row, KeyStroke key) {
+		MouseAction mouse = assertInstanceOf(MouseAction.class, key);
+		assertEquals(type, mouse.getActionType());
+		assertEquals(button, mouse.getButton());
+		assertEquals(column, mouse.getPosition().getColumn());
+		assertEquals(row, mouse.getPosition().getRow());
+	}
+
+	@Test
+	void modifiersAreDecoded() {
+		decode(decoder, "\u001B[1;5A");
+		assertKey(KeyType.ArrowUp, true, false, false, single());
+		decode(decoder, "\u001B[3;2~");
+		assertKey(KeyType.Delete, false, false, true, single());
+		decode(decoder, "\u001B[1;8D");
+		assertKey(KeyType.ArrowLeft, true, true, true, single());
+		decode(decoder, "\u001B[5~");
+		assertKey(KeyType.PageUp, false, false, false, single());
+
+		decode(decoder, "\u001Bx");
+		KeyStroke altX = single();
+		assertKey(KeyType.Character, false, true, false, altX);
+		assertEquals(Character.valueOf('x'), altX.getCharacter());
+		decode(decoder, "\u0001");
+		KeyStroke ctrlA = single();
+		assertKey(KeyType.Character, true, false, false, ctrlA);
+		assertEquals(Character.valueOf('a'), ctrlA.getCharacter());
+	}
+
+	@Test
+	void incompleteSequenceWaitsForTheNextChunk() {
+		assertEquals(1, decode(decoder, "a\u001B[1;"));
+		assertEquals(Character.valueOf('a'), single().getCharacter());
+
+		// the adapter passes the unconsumed rest together with the next chunk
+		assertEquals(6, decode(decoder, "\u001B[1;5A"));
+		assertKey(KeyType.ArrowUp, true, false, false, single());
+	}
+
+	@Test
+	void incompleteSequenceIsResolvedOnTimeout() {
+		assertEquals(0, decode(decoder, "\u001B"));
+		assertEquals(0, keys.size());
+		timeout("\u001B");
+		assertKey(KeyType.Escape, false, false, false, single());
+
+		assertEquals(0, decode(decoder, "\u001B["));
+		timeout("\u001B[");
+		KeyStroke altBracket = single();
+		assertKey(KeyType.Character, false, true, false, altBracket);
+		assertEquals(Character.valueOf('['), altBracket.getCharacter());
+
+		timeout("\u001B[1;");
+		assertEquals(0, keys.size());
+	}
+
+	@Test
+	void sgrMouseReportsAreDecoded() {
+		decode(decoder, "\u001B[<0;10;5M");
+		assertMouse(MouseActionType.CLICK_DOWN, 1, 9, 4, single());
+		decode(decoder, "\u001B[<32;11;5M");
+		assertMouse(MouseActionType.DRAG, 1, 10, 4, single());
+		decode(decoder, "\u001B[<0;11;5m");
+		assertMouse(MouseActionType.CLICK_RELEASE, 1, 10, 4, single());
+
+		// Ctrl (16) does not change the button, 35 is motion without a button
+		decode(decoder, "\u001B[<18;1;1M");
+		assertMouse(MouseActionType.CLICK_DOWN, 3, 0, 0, single());
+		decode(decoder, "\u001B[<35;2;3M");
+		assertMouse(MouseActionType.MOVE, 0, 1, 2, single());
+		decode(decoder, "\u001B[<65;1;1M");
+		assertMouse(MouseActionType.SCROLL_DOWN, 5, 0, 0, single());
+	}
+
+	@Test
+	void bracketedPasteSpansChunks() {
+		KeyDecoder pasting = new KeyDecoder(true, null);
+		assertEquals(9, decode(pasting, "\u001B[200~hel"));
+		// the end marker is split, its start is left for the next chunk
+		assertEquals(3, decode(pasting, "l\u001Bo\u001B[20"));
+		assertEquals(0, keys.size());
+		assertEquals(7, decode(pasting, "\u001B[201~x"));
+
+		assertEquals(2, keys.size());
+		assertEquals("hell\u001Bo", assertInstanceOf(PasteKeyStroke.class, keys.get(0)).getText());
+		assertEquals(Character.valueOf('x'), keys.get(1).getCharacter());
+	}
+
+	@Test
+	void bracketedPasteAsKeys() {
+		decode(decoder, "\u001B[200~a\tb\u001B[201~");
+
+		assertEquals(List.of("Character", "Tab", "Character"), describe(keys));
+		assertEquals(Character.valueOf('b'), keys.get(2).getCharacter());
+	}
+
+	private static MouseAction mouse(MouseActionType type, int button, int column) {
+		return new MouseAction(type, button, new TerminalPosition(column, 0));
+	}
+
+	private static List<String> describe(List<KeyStroke> keys) {
+		return keys.stream().map(key -> key instanceof MouseAction mouse
+				? mouse.getActionType() + " " + mouse.getButton() + " " + mouse.getPosition().getColumn()
+				: key.getKeyType().toString()).toList();
+	}
+
+	@Test
+	void dragsMovesAndScrollsCollapseToTheLastEvent() {
+		List<KeyStroke> keys = new ArrayList<>(List.of(
+				mouse(MouseActionType.DRAG, 1, 1),
+				mouse(MouseActionType.DRAG, 1, 2),
+				mouse(MouseActionType.DRAG, 1, 3),
+				mouse(MouseActionType.SCROLL_UP, 4, 3),
+				mouse(MouseActionType.SCROLL_UP, 4, 3),
+				mouse(MouseActionType.MOVE, 0, 7),
+				mouse(MouseActionType.MOVE, 0, 8)));
+
+		KeyDecoder.coalesce(keys);
+
+		assertEquals(List.of("DRAG 1 3", "SCROLL_UP 4 3", "MOVE 0 8"), describe(keys));
+	}
+
+	@Test
+	void clicksKeysAndOtherButtonsAreNeverMerged() {
+		KeyStroke a = KeyDecoder.key(KeyType.ArrowUp);
+		List<KeyStroke> keys = new ArrayList<>(List.of(
+				mouse(MouseActionType.CLICK_DOWN, 1, 1),
+				mouse(MouseActionType.CLICK_DOWN, 1, 1),
+				mouse(MouseActionType.DRAG, 1, 2),
+				mouse(MouseActionType.DRAG, 3, 2),
+				a,
+				a,
+				mouse(MouseActionType.CLICK_RELEASE, 1, 2),
+				mouse(MouseActionType.CLICK_RELEASE, 1, 2)));
+		List<String> expected = describe(keys);
+
+		KeyDecoder.coalesce(keys);
+
+		assertEquals(expected, describe(keys));
+		assertFalse(KeyDecoder.mergeable(mouse(MouseActionType.SCROLL_UP, 4, 0), mouse(MouseActionType.SCROLL_DOWN, 5, 0)));
+		assertTrue(KeyDecoder.mergeable(mouse(MouseActionType.SCROLL_DOWN, 5, 0), mouse(MouseActionType.SCROLL_DOWN, 5, 1)));
+	}
+}
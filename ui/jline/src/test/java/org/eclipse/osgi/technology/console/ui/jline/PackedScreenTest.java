@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.osgi.technology.console.ui.jline.headless.HeadlessTerminal;
+import org.eclipse.osgi.technology.console.ui.jline.headless.VtScreen;
+import org.junit.jupiter.api.Test;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+
+public class PackedScreenTest {
+
+	private static void put(PackedScreen screen, int column, int row, String text) {
+		for (int i = 0; i < text.length(); i++) {
+			screen.setCharacter(column + i, row, TextCharacter.fromCharacter(text.charAt(i))[0]);
+		}
+	}
+
+	private static PackedScreen start(HeadlessTerminal headless) throws Exception {
+		PackedScreen screen = new PackedScreen(headless.terminal());
+		screen.startScreen();
+		screen.setCursorPosition(null);
+		for (int row = 0; row < 6; row++) {
+			put(screen, 0, row, "row" + row);
+		}
+		screen.refresh();
+		headless.screen().takeFrames();
+		return screen;
+	}
+
+	@Test
+	void refreshWritesOnlyChangedCells() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(20, 6)) {
+			PackedScreen screen = start(headless);
+			VtScreen vt = headless.screen();
+
+			screen.refresh();
+			assertEquals(List.of(), vt.takeFrames());
+
+			put(screen, 3, 1, "X");
+			screen.setCharacter(10, 2, TextCharacter.fromCharacter('b', TextColor.ANSI.DEFAULT, TextColor.ANSI.BLUE)[0]);
+			screen.refresh();
+
+			List<VtScreen.FrameStatistics> frames = vt.takeFrames();
+			assertEquals(1, frames.size());
+			assertEquals(2, frames.get(0).printed());
+			assertEquals("rowX", vt.line(1));
+			assertEquals("row2      b", vt.line(2));
+			assertEquals(4, vt.backgroundAt(10, 2));
+		}
+	}
+
+	@Test
+	void overwritingHalfOfAWideCharacterBlanksTheOtherHalf() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(20, 6)) {
+			PackedScreen screen = start(headless);
+			VtScreen vt = headless.screen();
+
+			put(screen, 5, 0, "中");
+			screen.refresh();
+			assertEquals(0x4E2D, vt.codePointAt(5, 0));
+			assertEquals(0, vt.codePointAt(6, 0));
+
+			// the right half
+			put(screen, 6, 0, "x");
+			screen.refresh();
+			assertEquals(' ', vt.codePointAt(5, 0));
+			assertEquals('x', vt.codePointAt(6, 0));
+			assertEquals(" ", screen.getBackCharacter(5, 0).getCharacterString());
+
+			// the left half
+			put(screen, 8, 0, "中");
+			put(screen, 8, 0, "y");
+			screen.refresh();
+			assertEquals("row0  x y", vt.line(0));
+		}
+	}
+
+	@Test
+	void scrollIsRepeatedByTheTerminal() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(20, 6)) {
+			PackedScreen screen = start(headless);
+			VtScreen vt = headless.screen();
+
+			screen.scrollLines(0, 5, 1);
+			put(screen, 0, 5, "new");
+			screen.refresh();
+
+			// only the row scrolled in is printed
+			assertEquals(3, vt.takeFrames().get(0).printed());
+			assertEquals("row1", vt.line(0));
+			assertEquals("row5", vt.line(4));
+			assertEquals("new", vt.line(5));
+		}
+	}
+
+	@Test
+	void resizeKeepsContentAndRedraws() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(20, 6, Map.of(JlineAdapterTerminal.RESIZE_DEBOUNCE, 0))) {
+			PackedScreen screen = start(headless);
+			VtScreen vt = headless.screen();
+
+			headless.resize(30, 8);
+			TerminalSize size = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+				TerminalSize resized;
+				while ((resized = screen.doResizeIfNecessary()) == null) {
+					Thread.sleep(5);
+				}
+				return resized;
+			});
+			assertEquals(new TerminalSize(30, 8), size);
+
+			put(screen, 25, 7, "end");
+			screen.refresh();
+
+			assertEquals("row0", vt.line(0));
+			assertEquals("row5", vt.line(5));
+			assertEquals("                         end", vt.line(7));
+			assertTrue(vt.takeFrames().get(0).printed() >= 27);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.eclipse.osgi.technology.console.ui.jline.headless.HeadlessTerminal;
+import org.eclipse.osgi.technology.console.ui.jline.headless.VtScreen;
+import org.junit.jupiter.api.Test;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.MouseAction;
+import com.googlecode.lanterna.input.MouseActionType;
+
+public class TerminalMultiplexerTest {
+
+	/**
+	 * Waits until the frame thread has drawn {@code expected} into the row.
+	 */
+	private static void awaitLine(VtScreen screen, int row, String expected) {
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			while (!expected.equals(screen.line(row))) {
+				Thread.sleep(5);
+			}
+		}, () -> "row " + row + ": " + screen.line(row));
+	}
+
+	private static KeyStroke read(VirtualTerminal virtual) {
+		return assertTimeoutPreemptively(Duration.ofSeconds(5), () -> virtual.readInput());
+	}
+
+	@Test
+	void tabsSwitchWithThePrefixKey() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(24, 8);
+				TerminalMultiplexer mux = new TerminalMultiplexer(headless.terminal(), Map.of())) {
+			VirtualTerminal one = mux.open("one");
+			VirtualTerminal two = mux.open("two");
+			assertEquals(new TerminalSize(24, 7), two.getTerminalSize());
+			one.putString("first");
+			one.flush();
+			two.putString("second");
+			two.flush();
+
+			VtScreen screen = headless.screen();
+			awaitLine(screen, 1, "first");
+			assertEquals(" 1 one  2 two", screen.line(0));
+
+			headless.type("a");
+			assertEquals(Character.valueOf('a'), read(one).getCharacter());
+
+			// Ctrl+B 2
+			headless.type("\u00022");
+			awaitLine(screen, 1, "second");
+			headless.type("b");
+			assertEquals(Character.valueOf('b'), read(two).getCharacter());
+
+			// Ctrl+B twice sends Ctrl+B itself, Ctrl+B n wraps around
+			headless.type("\u0002\u0002\u0002n");
+			KeyStroke ctrlB = read(two);
+			assertTrue(ctrlB.isCtrlDown());
+			assertEquals(Character.valueOf('b'), ctrlB.getCharacter());
+			awaitLine(screen, 1, "first");
+			assertNull(one.pollInput());
+		}
+	}
+
+	@Test
+	void splitStacksTerminalsBelowTheirTitles() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(24, 8);
+				TerminalMultiplexer mux = new TerminalMultiplexer(headless.terminal(),
+						Map.of(TerminalMultiplexer.LAYOUT, "split"))) {
+			VirtualTerminal one = mux.open("one");
+			VirtualTerminal two = mux.open("two");
+			assertEquals(new TerminalSize(24, 3), one.getTerminalSize());
+			assertEquals(new TerminalSize(24, 3), two.getTerminalSize());
+
+			one.putString("first");
+			one.flush();
+			for (int i = 0; i < 4; i++) {
+				two.putString("line " + i + "\n");
+			}
+			two.flush();
+
+			VtScreen screen = headless.screen();
+			// the second terminal scrolled within its own region
+			awaitLine(screen, 6, "line 3");
+			assertEquals("line 2", screen.line(5));
+			assertEquals("", screen.line(7));
+			assertEquals("\u2500 1 one " + "\u2500".repeat(16), screen.line(0));
+			assertEquals("first", screen.line(1));
+			assertEquals("\u2500 2 two " + "\u2500".repeat(16), screen.line(4));
+		}
+	}
+
+	@Test
+	void mouseEventsAreRelativeToTheRegion() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(24, 8);
+				TerminalMultiplexer mux = new TerminalMultiplexer(headless.terminal(),
+						Map.of(TerminalMultiplexer.LAYOUT, "split"))) {
+			VirtualTerminal one = mux.open("one");
+			VirtualTerminal two = mux.open("two");
+
+			// press at screen column 3, row 6: the second row of the lower region
+			headless.type("\u001B[<0;4;7M");
+			MouseAction press = assertInstanceOf(MouseAction.class, read(two));
+			assertEquals(MouseActionType.CLICK_DOWN, press.getActionType());
+			assertEquals(3, press.getPosition().getColumn());
+			assertEquals(1, press.getPosition().getRow());
+
+			// the press focused it
+			headless.type("z");
+			assertEquals(Character.valueOf('z'), read(two).getCharacter());
+
+			// a click on the other title focuses that terminal without an event
+			headless.type("\u001B[<0;3;1M\u001B[<0;3;1mq");
+			assertEquals(Character.valueOf('q'), read(one).getCharacter());
+			assertNull(two.pollInput());
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2025 Contributors to the Eclipse Foundation
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Stefan Bischof - initial
+ */
+package org.eclipse.osgi.technology.console.ui.jline.headless;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.terminal.Terminal;
+
+public class HeadlessTerminalTest {
+
+	@Test
+	void rendersTextAndAttributes() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(20, 5)) {
+			Terminal terminal = headless.terminal();
+			terminal.setCursorPosition(2, 1);
+			terminal.setForegroundColor(TextColor.ANSI.RED);
+			terminal.enableSGR(SGR.BOLD);
+			terminal.putString("hi");
+			terminal.flush();
+
+			VtScreen screen = headless.screen();
+			assertEquals("  hi", screen.line(1));
+			assertEquals(1, screen.foregroundAt(2, 1));
+			assertTrue(screen.attributesAt(3, 1).contains(SGR.BOLD));
+			assertEquals(4, screen.cursorColumn());
+
+			List<VtScreen.FrameStatistics> frames = screen.takeFrames();
+			assertEquals(1, frames.size());
+			assertEquals(2, frames.get(0).printed());
+		}
+	}
+
+	@Test
+	void decodesInjectedInput() throws Exception {
+		try (HeadlessTerminal headless = new HeadlessTerminal(20, 5)) {
+			headless.terminal().enterPrivateMode();
+			headless.type("\u001B[5~x");
+
+			assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+				KeyStroke pageUp = headless.terminal().readInput();
+				assertEquals(KeyType.PageUp, pageUp.getKeyType());
+				KeyStroke x = headless.terminal().readInput();
+				assertEquals(Character.valueOf('x'), x.getCharacter());
+			});
+		}
+	}
+
+	@Test
+	void replaysRecordedOutput() throws Exception {
+		SessionRecording recording;
+		String expected;
+		try (HeadlessTerminal headless = new HeadlessTerminal(20, 5)) {
+			headless.startRecording();
+			Terminal terminal = headless.terminal();
+			for (int row = 0; row < 5; row++) {
+				terminal.setCursorPosition(row, row);
+				terminal.putString("row " + row);
+				terminal.flush();
+			}
+			recording = headless.stopRecording();
+			expected = headless.screen().text();
+		}
+
+		ByteArrayOutputStream stored = new ByteArrayOutputStream();
+		recording.write(stored);
+		SessionRecording loaded = SessionRecording.read(new ByteArrayInputStream(stored.toByteArray()));
+
+		VtScreen replayed = new VtScreen(20, 5);
+		loaded.replayOutput(replayed);
+		assertEquals(expected, replayed.text());
+		assertEquals(5, replayed.takeFrames().size());
+	}
+}